@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the last build status posted for each commit and key, so that posting the very same status again, as
+ * replayed or restarted builds do, can be skipped.
+ * <p>
+ * Entries expire so that a status changed on Bitbucket by someone else is eventually posted again.
+ */
+final class BitbucketBuildStatusLedger {
+
+    /**
+     * How long a posted status is remembered, in minutes, {@code 0} disables the ledger.
+     */
+    private static final long TTL_DEFAULT = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(BitbucketBuildStatusLedger.class.getName() + ".ttlMinutes", 60)));
+
+    /**
+     * How many posted statuses are remembered at most.
+     */
+    private static final int MAX_ENTRIES_DEFAULT =
+            Math.max(1, Integer.getInteger(BitbucketBuildStatusLedger.class.getName() + ".maxEntries", 10000));
+
+    private static final BitbucketBuildStatusLedger INSTANCE =
+            new BitbucketBuildStatusLedger(TTL_DEFAULT, MAX_ENTRIES_DEFAULT);
+
+    private final long ttl;
+
+    /**
+     * The last posted status by server, repository, commit and key, guarded by {@code this}.
+     */
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    BitbucketBuildStatusLedger(long ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @NonNull
+    static BitbucketBuildStatusLedger get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells whether the same status was the last one posted for its commit and key.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the status to post.
+     * @return {@code true} if posting the status would change nothing.
+     */
+    synchronized boolean isPosted(@NonNull BitbucketApi bitbucket, @NonNull BitbucketBuildStatus status) {
+        if (ttl <= 0) {
+            return false;
+        }
+        String key = key(bitbucket, status);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - entry.posted > ttl) {
+            entries.remove(key);
+            return false;
+        }
+        if (entry.fingerprint.equals(fingerprint(status))) {
+            skipped.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a status that was posted successfully.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the posted status.
+     */
+    synchronized void posted(@NonNull BitbucketApi bitbucket, @NonNull BitbucketBuildStatus status) {
+        if (ttl > 0) {
+            entries.put(key(bitbucket, status), new Entry(fingerprint(status), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Forgets the status of a commit and key, for example because posting it failed and its state is unknown.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the status.
+     */
+    synchronized void forget(@NonNull BitbucketApi bitbucket, @NonNull BitbucketBuildStatus status) {
+        entries.remove(key(bitbucket, status));
+    }
+
+    /**
+     * @return how many posts were skipped.
+     */
+    long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Identifies the commit and key of a status, the same repository name may exist on several servers.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the status.
+     * @return the key of the status.
+     */
+    static String key(BitbucketApi bitbucket, BitbucketBuildStatus status) {
+        return serverUrl(bitbucket) + '/' + bitbucket.getOwner() + '/' + bitbucket.getRepositoryName() + '@'
+                + status.getHash() + '#' + status.getKey();
+    }
+
+    private static String serverUrl(BitbucketApi bitbucket) {
+        if (bitbucket instanceof BitbucketServerAPIClient) {
+            return ((BitbucketServerAPIClient) bitbucket).getServerUrl();
+        }
+        if (bitbucket instanceof BitbucketCloudApiClient) {
+            return BitbucketCloudEndpoint.SERVER_URL;
+        }
+        // other implementations cannot tell their server
+        return bitbucket.getClass().getName();
+    }
+
+    private static String fingerprint(BitbucketBuildStatus status) {
+        return status.getState() + '\n' + status.getUrl() + '\n' + status.getName() + '\n' + status.getDescription();
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long posted;
+
+        Entry(String fingerprint, long posted) {
+            this.fingerprint = fingerprint;
+            this.posted = posted;
+        }
+    }
+}
@@ -155,10 +155,13 @@ public class BitbucketBuildStatusNotifications {
         }
 
         if (state != null) {
-            BitbucketChangesetCommentNotifier notifier = new BitbucketChangesetCommentNotifier(bitbucket);
-            notifier.buildStatus(new BitbucketBuildStatus(hash, statusDescription, state, url, key, name));
+            // posted in the background, a status not posted yet is replaced by the later ones of the same key
+            boolean queued = BitbucketBuildStatusQueue.get()
+                    .submit(bitbucket, new BitbucketBuildStatus(hash, statusDescription, state, url, key, name), build);
             if (result != null) {
-                listener.getLogger().println("[Bitbucket] Build result notified");
+                listener.getLogger().println(queued
+                        ? "[Bitbucket] Build result queued for notification"
+                        : "[Bitbucket] Build result notified");
             }
         } else {
             listener.getLogger().println("[Bitbucket] Skip result notification");
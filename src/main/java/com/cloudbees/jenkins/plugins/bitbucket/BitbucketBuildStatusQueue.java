@@ -0,0 +1,325 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
+import com.cloudbees.jenkins.plugins.bitbucket.client.RateLimitDeadline;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Posts the build statuses in the background so that builds do not wait for Bitbucket.
+ * <p>
+ * The statuses of a commit and key are posted one at a time and in order, and a status still waiting to be posted is
+ * replaced by a newer one for the same commit and key, so that for example the in progress status of a short build
+ * is not posted at all once the build completed. A failed post is retried a few times after a growing, randomized
+ * delay, until a deadline that also bounds how long its requests wait for a rate limit. A status that could not be
+ * posted in the end is reported on the page of its build.
+ */
+final class BitbucketBuildStatusQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(BitbucketBuildStatusQueue.class.getName());
+
+    /**
+     * How many statuses are posted at the same time, {@code 0} posts them on the build thread.
+     */
+    private static final int THREADS_DEFAULT =
+            Math.max(0, Integer.getInteger(BitbucketBuildStatusQueue.class.getName() + ".threads", 4));
+
+    /**
+     * How many times a failed post is retried.
+     */
+    private static final int RETRIES_DEFAULT =
+            Math.max(0, Integer.getInteger(BitbucketBuildStatusQueue.class.getName() + ".retries", 3));
+
+    /**
+     * The delay before the first retry in milliseconds, doubled for each retry.
+     */
+    private static final long BACKOFF_DEFAULT =
+            Math.max(0, Long.getLong(BitbucketBuildStatusQueue.class.getName() + ".backoffMillis", 2000L));
+
+    /**
+     * How long a status is tried to be posted, retries and rate limits included, in seconds.
+     */
+    private static final long DEADLINE_DEFAULT = TimeUnit.SECONDS.toMillis(
+            Math.max(1, Integer.getInteger(BitbucketBuildStatusQueue.class.getName() + ".deadlineSeconds", 300)));
+
+    private static final BitbucketBuildStatusQueue INSTANCE =
+            new BitbucketBuildStatusQueue(THREADS_DEFAULT, RETRIES_DEFAULT, BACKOFF_DEFAULT, DEADLINE_DEFAULT);
+
+    @CheckForNull
+    private final ThreadPoolExecutor executor;
+
+    private final int retries;
+
+    private final long backoff;
+
+    private final long deadline;
+
+    /**
+     * The commits and keys with a status being posted, guarded by {@code this}.
+     */
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    private final AtomicLong posted = new AtomicLong();
+
+    private final AtomicLong superseded = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    BitbucketBuildStatusQueue(int threads, int retries, long backoff) {
+        this(threads, retries, backoff, DEADLINE_DEFAULT);
+    }
+
+    BitbucketBuildStatusQueue(int threads, int retries, long backoff, long deadline) {
+        if (threads > 0) {
+            executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), BitbucketBuildStatusQueue.class.getName()));
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            executor = null;
+        }
+        this.retries = retries;
+        this.backoff = backoff;
+        this.deadline = deadline;
+    }
+
+    @NonNull
+    static BitbucketBuildStatusQueue get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Posts a build status.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the status.
+     * @return {@code true} if the status is posted in the background, {@code false} if it was posted right away.
+     * @throws IOException if the status was posted right away and failed.
+     * @throws InterruptedException if the status was posted right away and interrupted.
+     */
+    boolean submit(@NonNull BitbucketApi bitbucket, @NonNull BitbucketBuildStatus status)
+            throws IOException, InterruptedException {
+        return submit(bitbucket, status, null);
+    }
+
+    /**
+     * Posts a build status.
+     *
+     * @param bitbucket the client of the repository of the commit.
+     * @param status the status.
+     * @param build the build of the status, told when the status cannot be posted in the background.
+     * @return {@code true} if the status is posted in the background, {@code false} if it was posted right away.
+     * @throws IOException if the status was posted right away and failed.
+     * @throws InterruptedException if the status was posted right away and interrupted.
+     */
+    boolean submit(@NonNull BitbucketApi bitbucket, @NonNull BitbucketBuildStatus status,
+                   @CheckForNull Run<?, ?> build) throws IOException, InterruptedException {
+        if (executor == null) {
+            post(bitbucket, status);
+            return false;
+        }
+        String key = BitbucketBuildStatusLedger.key(bitbucket, status);
+        synchronized (this) {
+            Slot slot = slots.get(key);
+            if (slot != null) {
+                if (slot.status != null) {
+                    superseded.incrementAndGet();
+                }
+                slot.bitbucket = bitbucket;
+                slot.status = status;
+                slot.build = build;
+                return true;
+            }
+            slots.put(key, new Slot(bitbucket, status, build));
+        }
+        executor.execute(() -> drain(key));
+        return true;
+    }
+
+    /**
+     * Posts the statuses of a commit and key until none is waiting.
+     */
+    private void drain(String key) {
+        while (true) {
+            BitbucketApi bitbucket;
+            BitbucketBuildStatus status;
+            Run<?, ?> build;
+            synchronized (this) {
+                Slot slot = slots.get(key);
+                if (slot.status == null) {
+                    slots.remove(key);
+                    return;
+                }
+                bitbucket = slot.bitbucket;
+                status = slot.status;
+                build = slot.build;
+                slot.status = null;
+                slot.build = null;
+            }
+            try {
+                postWithRetries(bitbucket, status, build);
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.FINE, "Interrupted while posting the build status of " + key, e);
+                Thread.currentThread().interrupt();
+                synchronized (this) {
+                    slots.remove(key);
+                }
+                return;
+            }
+        }
+    }
+
+    private void postWithRetries(BitbucketApi bitbucket, BitbucketBuildStatus status, @CheckForNull Run<?, ?> build)
+            throws InterruptedException {
+        long end = System.currentTimeMillis() + deadline;
+        RateLimitDeadline.set(end);
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    post(bitbucket, status);
+                    report(build, null);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    // randomized so that the retries of many statuses do not hit Bitbucket at once
+                    long delay = backoff << attempt;
+                    delay += ThreadLocalRandom.current().nextLong(delay + 1);
+                    if (attempt >= retries || !isRetryable(e) || System.currentTimeMillis() + delay >= end) {
+                        failed.incrementAndGet();
+                        LOGGER.log(Level.WARNING, "Could not post the " + status.getState() + " build status of "
+                                + status.getHash() + " for " + status.getKey(), e);
+                        report(build, new BitbucketBuildStatusFailureAction(status.getState(),
+                                String.valueOf(e.getMessage())));
+                        return;
+                    }
+                    LOGGER.log(Level.FINE, "Could not post the build status of {0} for {1}, retrying in {2}ms: {3}",
+                            new Object[]{status.getHash(), status.getKey(), delay, e.getMessage()});
+                    Thread.sleep(delay);
+                }
+            }
+        } finally {
+            RateLimitDeadline.clear();
+        }
+    }
+
+    /**
+     * Shows on the page of the build whether its last status could not be posted.
+     *
+     * @param failure the failure to show or {@code null} if the status was posted.
+     */
+    private static void report(@CheckForNull Run<?, ?> build, @CheckForNull BitbucketBuildStatusFailureAction failure) {
+        if (build == null || failure == null && build.getAction(BitbucketBuildStatusFailureAction.class) == null) {
+            return;
+        }
+        if (failure == null) {
+            build.removeActions(BitbucketBuildStatusFailureAction.class);
+        } else {
+            build.addOrReplaceAction(failure);
+        }
+        try {
+            build.save();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not save " + build, e);
+        }
+    }
+
+    private void post(BitbucketApi bitbucket, BitbucketBuildStatus status) throws IOException, InterruptedException {
+        new BitbucketChangesetCommentNotifier(bitbucket).buildStatus(status);
+        posted.incrementAndGet();
+    }
+
+    /**
+     * Tells whether posting again may succeed, the client errors other than a rate limit would fail again.
+     */
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof BitbucketRequestException) {
+            int code = ((BitbucketRequestException) e).getHttpCode();
+            return code == 429 || code >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * @return how many statuses are waiting or being posted.
+     */
+    synchronized int getPending() {
+        return slots.size();
+    }
+
+    /**
+     * @return how many statuses were posted.
+     */
+    long getPosted() {
+        return posted.get();
+    }
+
+    /**
+     * @return how many statuses were replaced by a newer one before being posted.
+     */
+    long getSuperseded() {
+        return superseded.get();
+    }
+
+    /**
+     * @return how many statuses could not be posted.
+     */
+    long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return getPending() + " pending, " + getPosted() + " posted, " + getSuperseded() + " superseded, "
+                + getFailed() + " failed.";
+    }
+
+    private static final class Slot {
+        private BitbucketApi bitbucket;
+        @CheckForNull
+        private BitbucketBuildStatus status;
+        @CheckForNull
+        private Run<?, ?> build;
+
+        Slot(BitbucketApi bitbucket, BitbucketBuildStatus status, Run<?, ?> build) {
+            this.bitbucket = bitbucket;
+            this.status = status;
+            this.build = build;
+        }
+    }
+}
@@ -47,7 +47,18 @@ public class BitbucketChangesetCommentNotifier extends BitbucketNotifier {
 
     @Override
     public void buildStatus(BitbucketBuildStatus status) throws IOException, InterruptedException {
-        bitbucket.postBuildStatus(status);
+        BitbucketBuildStatusLedger ledger = BitbucketBuildStatusLedger.get();
+        if (ledger.isPosted(bitbucket, status)) {
+            // replayed or restarted builds post the very same status again
+            return;
+        }
+        try {
+            bitbucket.postBuildStatus(status);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            ledger.forget(bitbucket, status);
+            throw e;
+        }
+        ledger.posted(bitbucket, status);
     }
 
 }
@@ -48,6 +48,8 @@ import hudson.model.Action;
 import hudson.model.Item;
 import hudson.model.TaskListener;
 import hudson.plugins.git.GitSCM;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.security.AccessControlled;
 import hudson.util.FormFillFailure;
 import hudson.util.FormValidation;
@@ -61,7 +63,9 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.authentication.tokens.api.AuthenticationTokens;
@@ -100,6 +104,7 @@ import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
+import org.springframework.security.core.Authentication;
 
 import static com.cloudbees.jenkins.plugins.bitbucket.BitbucketApiUtils.getFromBitbucket;
 
@@ -107,6 +112,20 @@ public class BitbucketSCMNavigator extends SCMNavigator {
 
     private static final Logger LOGGER = Logger.getLogger(BitbucketSCMSource.class.getName());
 
+    /**
+     * How many repositories are looked up concurrently ahead of the one being processed while visiting the sources,
+     * {@code 1} looks each one up as it is processed. The repositories are still processed one at a time.
+     */
+    static /*mostly final*/ int repositoryProcessingThreads =
+        Math.max(1, Integer.getInteger(BitbucketSCMNavigator.class.getName() + ".repositoryProcessingThreads", 1));
+
+    /**
+     * How many of the first branches of a repository looked up ahead get the root directory of their head listed
+     * ahead too, where the probes of the criteria usually look.
+     */
+    static /*mostly final*/ int preparedBranches =
+        Math.max(0, Integer.getInteger(BitbucketSCMNavigator.class.getName() + ".preparedBranches", 5));
+
     @NonNull
     private String serverUrl;
     @CheckForNull
@@ -525,14 +544,30 @@ public class BitbucketSCMNavigator extends SCMNavigator {
                 listener.getLogger().format("Looking up repositories of user %s%n", repoOwner);
                 request.withRepositories(bitbucket.getRepositories(UserRoleInRepository.ADMIN));
             }
-            for (BitbucketRepository repo : request.repositories()) {
-                if (request.process(repo.getRepositoryName(), sourceFactory, null, witness)) {
-                    listener.getLogger().format(
-                            "%d repositories were processed (query completed)%n", witness.getCount()
-                    );
+            boolean completed = false;
+            // the repositories are looked up ahead on behalf of the user visiting the sources, while the observer is
+            // only ever called from this thread
+            Authentication authentication = Jenkins.getAuthentication2();
+            try (PreparedIterable<BitbucketRepository> repositories = new PreparedIterable<>(request.repositories(),
+                    repositoryProcessingThreads > 1 ? repositoryProcessingThreads : 0, repo -> {
+                        try (ACLContext ctx = ACL.as2(authentication)) {
+                            sourceFactory.prepare(repo.getRepositoryName());
+                        }
+                    })) {
+                for (BitbucketRepository repo : repositories) {
+                    if (request.process(repo.getRepositoryName(), sourceFactory, null, witness)) {
+                        completed = true;
+                        break;
+                    }
                 }
             }
-            listener.getLogger().format("%d repositories were processed%n", witness.getCount());
+            if (completed) {
+                listener.getLogger().format(
+                        "%d repositories were processed (query completed)%n", witness.getCount()
+                );
+            } else {
+                listener.getLogger().format("%d repositories were processed%n", witness.getCount());
+            }
         }
     }
 
@@ -846,6 +881,10 @@ public class BitbucketSCMNavigator extends SCMNavigator {
 
     private class SourceFactory implements SCMNavigatorRequest.SourceLambda {
         private final BitbucketSCMNavigatorRequest request;
+        /**
+         * The sources built ahead by {@link #prepare(String)} until {@link #create(String)} hands them out.
+         */
+        private final Map<String, BitbucketSCMSource> prepared = new ConcurrentHashMap<>();
 
         public SourceFactory(BitbucketSCMNavigatorRequest request) {
             this.request = request;
@@ -854,6 +893,28 @@ public class BitbucketSCMNavigator extends SCMNavigator {
         @NonNull
         @Override
         public SCMSource create(@NonNull String projectName) throws IOException, InterruptedException {
+            BitbucketSCMSource source = prepared.remove(projectName);
+            return source != null ? source : build(projectName);
+        }
+
+        /**
+         * Builds the source of a repository ahead of its processing, looks the repository up so that the scans of the
+         * source do not have to, and lists the directories the first probes of its branches will look into.
+         *
+         * @param projectName the repository name.
+         */
+        void prepare(@NonNull String projectName) throws IOException, InterruptedException {
+            if (request.isExcluded(projectName)) {
+                return;
+            }
+            BitbucketSCMSource source = build(projectName);
+            source.getRepositoryType();
+            prepared.put(projectName, source);
+            source.prepareProbes(preparedBranches);
+        }
+
+        @NonNull
+        private BitbucketSCMSource build(@NonNull String projectName) {
             return new BitbucketSCMSourceBuilder(
                     getId() + "::" + projectName,
                     serverUrl,
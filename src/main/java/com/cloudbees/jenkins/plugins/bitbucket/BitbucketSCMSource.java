@@ -30,6 +30,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketHref;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketListingQuery;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMirroredRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMirroredRepositoryDescriptor;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
@@ -38,12 +39,17 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepositoryType;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketTeam;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
+import com.cloudbees.jenkins.plugins.bitbucket.client.Cache;
+import com.cloudbees.jenkins.plugins.bitbucket.client.PagedIterable;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.AbstractBitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketServerEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFileSystem;
 import com.cloudbees.jenkins.plugins.bitbucket.hooks.HasPullRequests;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.NativeServerPullRequestIndex;
 import com.cloudbees.jenkins.plugins.bitbucket.server.BitbucketServerWebhookImplementation;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
@@ -69,6 +75,7 @@ import hudson.security.AccessControlled;
 import hudson.util.FormFillFailure;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.ObjectStreamException;
 import java.util.ArrayList;
@@ -84,12 +91,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.model.Jenkins;
 import jenkins.plugins.git.AbstractGitSCMSource.SCMRevisionImpl;
 import jenkins.plugins.git.traits.GitBrowserSCMSourceTrait;
+import jenkins.scm.api.SCMFile;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMHeadCategory;
 import jenkins.scm.api.SCMHeadEvent;
@@ -150,6 +160,30 @@ public class BitbucketSCMSource extends SCMSource {
             Math.max(
                 0, Integer.getInteger(BitbucketSCMSource.class.getName() + ".eventDelaySeconds", 5)));
 
+    /**
+     * Up to how many requested heads of a kind are fetched one by one rather than listing all of them, {@code 0}
+     * always lists.
+     */
+    private static /*mostly final*/ int targetedRetrievalLimit =
+        Math.max(0, Integer.getInteger(BitbucketSCMSource.class.getName() + ".targetedRetrievalLimit", 10));
+
+    /**
+     * How many of the next heads are probed concurrently while scanning, {@code 0} probes them one at a time.
+     */
+    private static /*mostly final*/ int headProcessingThreads =
+        Math.max(0, Integer.getInteger(BitbucketSCMSource.class.getName() + ".headProcessingThreads", 0));
+
+    /**
+     * The names in the directories of the commits probed, keyed by server, credentials, repository, commit hash and
+     * directory path. Commits never change, so the entries only expire to bound the memory they hold.
+     */
+    private static final Cache<String, Set<String>> probedDirectories = new Cache<>(24, TimeUnit.HOURS, 5000);
+
+    /**
+     * Marks the directories holding more names than a single request lists, the probes check their paths directly.
+     */
+    private static final Set<String> LARGE_DIRECTORY = Collections.unmodifiableSet(new HashSet<>());
+
     /**
      * Bitbucket URL.
      */
@@ -593,8 +627,25 @@ public class BitbucketSCMSource extends SCMSource {
                                 HasPullRequests hasPrEvent = (HasPullRequests) event;
                                 return getBitbucketPullRequestsFromEvent(hasPrEvent, listener);
                             }
+                            Set<String> numbers = request.getRequestedPullRequestNumbers();
+                            if (isTargeted(numbers) && !(request.isFetchBranches()
+                                    && request.isFilterBranchesByPullRequests()
+                                    && !request.getRequestedOriginBranchNames().isEmpty())) {
+                                return getRequestedPullRequests(numbers, listener);
+                            }
 
-                            return (Iterable<BitbucketPullRequest>) buildBitbucketClient().getPullRequests();
+                            BitbucketApi bitbucket = buildBitbucketClient();
+                            BitbucketListingQuery query = request.getPullRequestQuery();
+                            Iterable<BitbucketPullRequest> pullRequests = (Iterable<BitbucketPullRequest>) (query.isAll()
+                                    ? bitbucket.iteratePullRequests()
+                                    : bitbucket.iteratePullRequests(query));
+                            // Bitbucket Server only narrows the listing down to the pull requests into a given branch
+                            if (bitbucket instanceof BitbucketServerAPIClient && query.getExactName() == null) {
+                                // lets the push hooks find the pull requests of a ref without asking Bitbucket
+                                return NativeServerPullRequestIndex.get()
+                                        .recording(getServerUrl(), repoOwner, repository, pullRequests);
+                            }
+                            return pullRequests;
                         } catch (IOException | InterruptedException e) {
                             throw new BitbucketSCMSource.WrappedException(e);
                         }
@@ -606,7 +657,14 @@ public class BitbucketSCMSource extends SCMSource {
                     @Override
                     protected Iterable<BitbucketBranch> create() {
                         try {
-                            return (Iterable<BitbucketBranch>) buildBitbucketClient().getBranches();
+                            Set<String> names = request.getRequestedOriginBranchNames();
+                            if (isTargeted(names)) {
+                                return getRequestedBranches(names, false, listener);
+                            }
+                            BitbucketListingQuery query = request.getRefQuery();
+                            return (Iterable<BitbucketBranch>) (query.isAll()
+                                    ? buildBitbucketClient().iterateBranches()
+                                    : buildBitbucketClient().iterateBranches(query));
                         } catch (IOException | InterruptedException e) {
                             throw new BitbucketSCMSource.WrappedException(e);
                         }
@@ -618,7 +676,14 @@ public class BitbucketSCMSource extends SCMSource {
                     @Override
                     protected Iterable<BitbucketBranch> create() {
                         try {
-                            return (Iterable<BitbucketBranch>) buildBitbucketClient().getTags();
+                            Set<String> names = request.getRequestedTagNames();
+                            if (isTargeted(names)) {
+                                return getRequestedBranches(names, true, listener);
+                            }
+                            BitbucketListingQuery query = request.getRefQuery();
+                            return (Iterable<BitbucketBranch>) (query.isAll()
+                                    ? buildBitbucketClient().iterateTags()
+                                    : buildBitbucketClient().iterateTags(query));
                         } catch (IOException | InterruptedException e) {
                             throw new BitbucketSCMSource.WrappedException(e);
                         }
@@ -629,19 +694,77 @@ public class BitbucketSCMSource extends SCMSource {
             // now server the request
             if (request.isFetchBranches() && !request.isComplete()) {
                 // Search branches
-                retrieveBranches(request);
+                retrieveBranches(request, criteria);
             }
             if (request.isFetchPRs() && !request.isComplete()) {
                 // Search pull requests
-                retrievePullRequests(request);
+                retrievePullRequests(request, criteria);
             }
             if (request.isFetchTags() && !request.isComplete()) {
                 // Search tags
-                retrieveTags(request);
+                retrieveTags(request, criteria);
             }
         } catch (WrappedException e) {
             e.unwrap();
+        } catch (PagedIterable.PageRequestException e) {
+            e.unwrap();
+        }
+    }
+
+    private static boolean isTargeted(@CheckForNull Set<String> requested) {
+        return requested != null && requested.size() <= targetedRetrievalLimit;
+    }
+
+    /**
+     * Fetches the requested branches or tags one by one, the ones that no longer exist are skipped.
+     */
+    private List<BitbucketBranch> getRequestedBranches(@NonNull Set<String> names, boolean tags,
+                                                       @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        listener.getLogger().format("Looking up %d requested %s%n", names.size(), tags ? "tag(s)" : "branch(es)");
+        BitbucketApi bitbucket = buildBitbucketClient();
+        List<BitbucketBranch> branches = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                BitbucketBranch branch = tags ? bitbucket.getTag(name) : bitbucket.getBranch(name);
+                if (branch != null) {
+                    branches.add(branch);
+                }
+            } catch (FileNotFoundException e) {
+                LOGGER.log(Level.FINE, "{0} {1} not found", new Object[]{tags ? "Tag" : "Branch", name});
+            }
         }
+        return branches;
+    }
+
+    /**
+     * Fetches the requested pull requests one by one, the ones that no longer exist or are no longer open are skipped.
+     */
+    private List<BitbucketPullRequest> getRequestedPullRequests(@NonNull Set<String> numbers,
+                                                                @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        listener.getLogger().format("Looking up %d requested pull request(s)%n", numbers.size());
+        BitbucketApi bitbucket = buildBitbucketClient();
+        List<BitbucketPullRequest> pullRequests = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            BitbucketPullRequest pr;
+            try {
+                pr = bitbucket.getPullRequestById(Integer.valueOf(number));
+            } catch (NumberFormatException | FileNotFoundException e) {
+                LOGGER.log(Level.FINE, "Pull request {0} not found", number);
+                continue;
+            }
+            if (pr == null || pr.getState() != null && !"OPEN".equalsIgnoreCase(pr.getState())) {
+                continue;
+            }
+            if (pr.getSource().getRepository() == null
+                    || pr.getSource().getBranch() == null
+                    || pr.getDestination().getBranch() == null) {
+                continue;
+            }
+            pullRequests.add(pr);
+        }
+        return pullRequests;
     }
 
     private Iterable<BitbucketPullRequest> getBitbucketPullRequestsFromEvent(@NonNull HasPullRequests incomingPrEvent, @NonNull TaskListener listener) {
@@ -662,7 +785,8 @@ public class BitbucketSCMSource extends SCMSource {
         return initializedPRs;
     }
 
-    private void retrievePullRequests(final BitbucketSCMSourceRequest request) throws IOException, InterruptedException {
+    private void retrievePullRequests(final BitbucketSCMSourceRequest request, @CheckForNull SCMSourceCriteria criteria)
+            throws IOException, InterruptedException {
         final String fullName = repoOwner + "/" + repository;
 
         class Skip extends IOException {
@@ -678,100 +802,92 @@ public class BitbucketSCMSource extends SCMSource {
         final Set<String> livePRs = new HashSet<>();
         int count = 0;
         Map<Boolean, Set<ChangeRequestCheckoutStrategy>> strategies = request.getPRStrategies();
-        for (final BitbucketPullRequest pull : request.getPullRequests()) {
-            String originalBranchName = pull.getSource().getBranch().getName();
-            request.listener().getLogger().printf(
-                    "Checking PR-%s from %s and branch %s%n",
-                    pull.getId(),
-                    pull.getSource().getRepository().getFullName(),
-                    originalBranchName
-            );
+        final Map<String, Boolean> probed = new ConcurrentHashMap<>();
+        final String probeScope = probeScope();
+        // one client per fork for the whole scan, so that pull requests from the same fork share its caches
+        final Map<String, BitbucketApi> forkClients = new ConcurrentHashMap<>();
+        try (PreparedIterable<BitbucketPullRequest> pullRequests = new PreparedIterable<>(request.getPullRequests(),
+                headProcessingThreads, pull -> {
             boolean fork = !fullName.equalsIgnoreCase(pull.getSource().getRepository().getFullName());
-            String pullRepoOwner = pull.getSource().getRepository().getOwnerName();
-            String pullRepository = pull.getSource().getRepository().getRepositoryName();
-            final BitbucketApi pullBitbucket = fork && originBitbucket instanceof BitbucketCloudApiClient
-                    ? BitbucketApiFactory.newInstance(
-                    getServerUrl(),
-                    authenticator(),
-                    pullRepoOwner,
-                    null,
-                    pullRepository
-            )
-                    : originBitbucket;
-            count++;
-            livePRs.add(pull.getId());
-            getPullRequestTitleCache()
-                    .put(pull.getId(), StringUtils.defaultString(pull.getTitle()));
-            getPullRequestContributorCache().put(pull.getId(),
-                    new ContributorMetadataAction(pull.getAuthorIdentifier(), pull.getAuthorLogin(), pull.getAuthorEmail()));
-            try {
-                // We store resolved hashes here so to avoid resolving the commits multiple times
-                for (final ChangeRequestCheckoutStrategy strategy : strategies.get(fork)) {
-                    String branchName = "PR-" + pull.getId();
-                    if (strategies.get(fork).size() > 1) {
-                        branchName = "PR-" + pull.getId() + "-" + strategy.name().toLowerCase(Locale.ENGLISH);
-                    }
-                    PullRequestSCMHead head = new PullRequestSCMHead( //
-                        branchName, //
-                        pullRepoOwner, //
-                        pullRepository, //
-                        originalBranchName, //
-                        pull, //
-                        originOf(pullRepoOwner, pullRepository), //
-                        strategy
-                    );
-                    if (request.process(head, //
-                        () -> {
-                            // use branch instead of commit to postpone closure initialisation
-                            return new BranchHeadCommit(pull.getSource().getBranch());
-                        },  //
-                            new BitbucketProbeFactory<>(pullBitbucket, request), //
-                            new BitbucketRevisionFactory<BitbucketCommit>(pullBitbucket) {
-                                @NonNull
-                                @Override
-                                public SCMRevision create(@NonNull SCMHead head, @Nullable BitbucketCommit sourceCommit)
-                                        throws IOException, InterruptedException {
-                                    try {
-                                        // use branch instead of commit to postpone closure initialisation
-                                        BranchHeadCommit targetCommit = new BranchHeadCommit(pull.getDestination().getBranch());
-                                        return super.create(head, sourceCommit, targetCommit);
-                                    } catch (BitbucketRequestException e) {
-                                        if (originBitbucket instanceof BitbucketCloudApiClient) {
+            BitbucketApi pullBitbucket = pullRequestClient(originBitbucket, fork, pull, forkClients);
+            prepareCommit(new BranchHeadCommit(pull.getDestination().getBranch()));
+            for (PullRequestSCMHead head : pullRequestHeads(pull, strategies.get(fork))) {
+                prepareHead(request, criteria, head, new BranchHeadCommit(pull.getSource().getBranch()),
+                        new BitbucketProbeFactory<>(pullBitbucket, request, probed, probeScope));
+            }
+        })) {
+            for (final BitbucketPullRequest pull : pullRequests) {
+                String originalBranchName = pull.getSource().getBranch().getName();
+                request.listener().getLogger().printf(
+                        "Checking PR-%s from %s and branch %s%n",
+                        pull.getId(),
+                        pull.getSource().getRepository().getFullName(),
+                        originalBranchName
+                );
+                boolean fork = !fullName.equalsIgnoreCase(pull.getSource().getRepository().getFullName());
+                final BitbucketApi pullBitbucket = pullRequestClient(originBitbucket, fork, pull, forkClients);
+                count++;
+                livePRs.add(pull.getId());
+                getPullRequestTitleCache()
+                        .put(pull.getId(), StringUtils.defaultString(pull.getTitle()));
+                getPullRequestContributorCache().put(pull.getId(),
+                        new ContributorMetadataAction(pull.getAuthorIdentifier(), pull.getAuthorLogin(), pull.getAuthorEmail()));
+                try {
+                    // We store resolved hashes here so to avoid resolving the commits multiple times
+                    for (final PullRequestSCMHead head : pullRequestHeads(pull, strategies.get(fork))) {
+                        if (request.process(head, //
+                            () -> {
+                                // use branch instead of commit to postpone closure initialisation
+                                return new BranchHeadCommit(pull.getSource().getBranch());
+                            },  //
+                                new BitbucketProbeFactory<>(pullBitbucket, request, probed, probeScope), //
+                                new BitbucketRevisionFactory<BitbucketCommit>(pullBitbucket) {
+                                    @NonNull
+                                    @Override
+                                    public SCMRevision create(@NonNull SCMHead head, @Nullable BitbucketCommit sourceCommit)
+                                            throws IOException, InterruptedException {
+                                        try {
+                                            // use branch instead of commit to postpone closure initialisation
+                                            BranchHeadCommit targetCommit = new BranchHeadCommit(pull.getDestination().getBranch());
+                                            return super.create(head, sourceCommit, targetCommit);
+                                        } catch (BitbucketRequestException e) {
+                                            if (originBitbucket instanceof BitbucketCloudApiClient) {
+                                                if (e.getHttpCode() == 403) {
+                                                    request.listener().getLogger().printf( //
+                                                            "Skipping %s because of %s%n", //
+                                                            pull.getId(), //
+                                                            HyperlinkNote.encodeTo("https://bitbucket.org/site/master" //
+                                                                    + "/issues/5814/reify-pull-requests-by-making-them-a-ref", //
+                                                                    "a permission issue accessing pull requests from forks"));
+                                                    throw new Skip();
+                                                }
+                                            }
+                                            // https://bitbucket.org/site/master/issues/5814/reify-pull-requests-by-making-them-a-ref
+                                            e.printStackTrace(request.listener().getLogger());
                                             if (e.getHttpCode() == 403) {
-                                                request.listener().getLogger().printf( //
-                                                        "Skipping %s because of %s%n", //
-                                                        pull.getId(), //
-                                                        HyperlinkNote.encodeTo("https://bitbucket.org/site/master" //
-                                                                + "/issues/5814/reify-pull-requests-by-making-them-a-ref", //
-                                                                "a permission issue accessing pull requests from forks"));
+                                                // the credentials do not have permission, so we should not observe the
+                                                // PR ever the PR is dead to us, so this is the one case where we can
+                                                // squash the exception.
                                                 throw new Skip();
                                             }
+                                            throw e;
                                         }
-                                        // https://bitbucket.org/site/master/issues/5814/reify-pull-requests-by-making-them-a-ref
-                                        e.printStackTrace(request.listener().getLogger());
-                                        if (e.getHttpCode() == 403) {
-                                            // the credentials do not have permission, so we should not observe the
-                                            // PR ever the PR is dead to us, so this is the one case where we can
-                                            // squash the exception.
-                                            throw new Skip();
-                                        }
-                                        throw e;
                                     }
-                                }
-                            }, //
-                            new CriteriaWitness(request))) {
-                        request.listener().getLogger() //
-                               .format("%n  %d pull requests were processed (query completed)%n", count);
-                        return;
+                                }, //
+                                new CriteriaWitness(request))) {
+                            request.listener().getLogger() //
+                                   .format("%n  %d pull requests were processed (query completed)%n", count);
+                            return;
+                        }
                     }
+                } catch (Skip e) {
+                    request.listener().getLogger().println(
+                            "Do not have permission to view PR from " + pull.getSource().getRepository()
+                                    .getFullName()
+                                    + " and branch "
+                                    + originalBranchName);
+                    continue;
                 }
-            } catch (Skip e) {
-                request.listener().getLogger().println(
-                        "Do not have permission to view PR from " + pull.getSource().getRepository()
-                                .getFullName()
-                                + " and branch "
-                                + originalBranchName);
-                continue;
             }
         }
         request.listener().getLogger().format("%n  %d pull requests were processed%n", count);
@@ -779,46 +895,136 @@ public class BitbucketSCMSource extends SCMSource {
         getPullRequestContributorCache().keySet().retainAll(livePRs);
     }
 
-    private void retrieveBranches(final BitbucketSCMSourceRequest request)
+    private BitbucketApi pullRequestClient(BitbucketApi originBitbucket, boolean fork, BitbucketPullRequest pull,
+                                           Map<String, BitbucketApi> forkClients) {
+        if (!fork || !(originBitbucket instanceof BitbucketCloudApiClient)) {
+            return originBitbucket;
+        }
+        String pullRepoOwner = pull.getSource().getRepository().getOwnerName();
+        String pullRepository = pull.getSource().getRepository().getRepositoryName();
+        return forkClients.computeIfAbsent(pullRepoOwner + "/" + pullRepository,
+                k -> BitbucketApiFactory.newInstance(getServerUrl(), authenticator(), pullRepoOwner, null, pullRepository));
+    }
+
+    private List<PullRequestSCMHead> pullRequestHeads(BitbucketPullRequest pull,
+                                                      Set<ChangeRequestCheckoutStrategy> strategies) {
+        String pullRepoOwner = pull.getSource().getRepository().getOwnerName();
+        String pullRepository = pull.getSource().getRepository().getRepositoryName();
+        List<PullRequestSCMHead> heads = new ArrayList<>(strategies.size());
+        for (ChangeRequestCheckoutStrategy strategy : strategies) {
+            String branchName = "PR-" + pull.getId();
+            if (strategies.size() > 1) {
+                branchName = "PR-" + pull.getId() + "-" + strategy.name().toLowerCase(Locale.ENGLISH);
+            }
+            heads.add(new PullRequestSCMHead( //
+                branchName, //
+                pullRepoOwner, //
+                pullRepository, //
+                pull.getSource().getBranch().getName(), //
+                pull, //
+                originOf(pullRepoOwner, pullRepository), //
+                strategy
+            ));
+        }
+        return heads;
+    }
+
+    /**
+     * Does ahead of {@link SCMSourceRequest#process} the remote calls it will make for the given head, so that they are
+     * answered from the caches by then. The criteria are checked quietly as they will be checked again.
+     */
+    private static void prepareHead(@NonNull BitbucketSCMSourceRequest request,
+                                    @CheckForNull SCMSourceCriteria criteria,
+                                    @NonNull SCMHead head,
+                                    @NonNull BitbucketCommit commit,
+                                    @NonNull BitbucketProbeFactory<BitbucketCommit> probeFactory)
+            throws IOException, InterruptedException {
+        if (request.isExcluded(head)) {
+            return;
+        }
+        prepareCommit(commit);
+        if (criteria != null) {
+            criteria.isHead(probeFactory.create(head, commit), TaskListener.NULL);
+        }
+    }
+
+    private static void prepareCommit(@NonNull BitbucketCommit commit) {
+        // what BitbucketGitSCMRevision reads from the commit
+        commit.getMessage();
+        commit.getAuthor();
+        commit.getDate();
+    }
+
+    private void retrieveBranches(final BitbucketSCMSourceRequest request, @CheckForNull SCMSourceCriteria criteria)
             throws IOException, InterruptedException {
         String fullName = repoOwner + "/" + repository;
         request.listener().getLogger().println("Looking up " + fullName + " for branches");
 
         final BitbucketApi bitbucket = buildBitbucketClient();
+        final Map<String, Boolean> probed = new ConcurrentHashMap<>();
+        final String probeScope = probeScope();
         int count = 0;
-        for (final BitbucketBranch branch : request.getBranches()) {
-            request.listener().getLogger().println("Checking branch " + branch.getName() + " from " + fullName);
-            count++;
-            if (request.process(new BranchSCMHead(branch.getName()), //
-                (IntermediateLambda<BitbucketCommit>) () -> new BranchHeadCommit(branch), //
-                    new BitbucketProbeFactory<>(bitbucket, request), //
-                    new BitbucketRevisionFactory<>(bitbucket), //
-                    new CriteriaWitness(request))) {
-                request.listener().getLogger().format("%n  %d branches were processed (query completed)%n", count);
-                return;
+        try (PreparedIterable<BitbucketBranch> branches = new PreparedIterable<>(request.getBranches(),
+                headProcessingThreads, branch -> prepareHead(request, criteria, new BranchSCMHead(branch.getName()),
+                        new BranchHeadCommit(branch), new BitbucketProbeFactory<>(bitbucket, request, probed, probeScope)))) {
+            for (final BitbucketBranch branch : branches) {
+                request.listener().getLogger().println("Checking branch " + branch.getName() + " from " + fullName);
+                count++;
+                if (request.process(new BranchSCMHead(branch.getName()), //
+                    (IntermediateLambda<BitbucketCommit>) () -> new BranchHeadCommit(branch), //
+                        new BitbucketProbeFactory<>(bitbucket, request, probed, probeScope), //
+                        new BitbucketRevisionFactory<>(bitbucket), //
+                        new CriteriaWitness(request))) {
+                    request.listener().getLogger().format("%n  %d branches were processed (query completed)%n", count);
+                    return;
+                }
             }
         }
         request.listener().getLogger().format("%n  %d branches were processed%n", count);
     }
 
 
-    private void retrieveTags(final BitbucketSCMSourceRequest request) throws IOException, InterruptedException {
+    private void retrieveTags(final BitbucketSCMSourceRequest request, @CheckForNull SCMSourceCriteria criteria)
+            throws IOException, InterruptedException {
         String fullName = repoOwner + "/" + repository;
         request.listener().getLogger().println("Looking up " + fullName + " for tags");
 
         final BitbucketApi bitbucket = buildBitbucketClient();
+        final Map<String, Boolean> probed = new ConcurrentHashMap<>();
+        final String probeScope = probeScope();
+        // tags only carry the hash, the commits resolved ahead are used in its place
+        final Map<String, BitbucketCommit> resolved = new ConcurrentHashMap<>();
         int count = 0;
-        for (final BitbucketBranch tag : request.getTags()) {
-            request.listener().getLogger().println("Checking tag " + tag.getName() + " from " + fullName);
-            count++;
-            if (request.process(new BitbucketTagSCMHead(tag.getName(), tag.getDateMillis()), //
-                tag::getRawNode, //
-                    new BitbucketProbeFactory<>(bitbucket, request), //
-                    new BitbucketRevisionFactory<>(bitbucket), //
-                    new CriteriaWitness(request))) {
-                request.listener().getLogger().format("%n  %d tags were processed (query completed)%n", count);
+        try (PreparedIterable<BitbucketBranch> tags = new PreparedIterable<>(request.getTags(),
+                headProcessingThreads, tag -> {
+            BitbucketTagSCMHead head = new BitbucketTagSCMHead(tag.getName(), tag.getDateMillis());
+            // do not resolve the commits of the tags the request will not process
+            if (tag.getRawNode() == null || request.isExcluded(head)) {
                 return;
             }
+            BitbucketCommit commit = bitbucket.resolveCommit(tag.getRawNode());
+            if (commit != null) {
+                resolved.put(tag.getRawNode(), commit);
+                prepareHead(request, criteria, head, commit,
+                        new BitbucketProbeFactory<>(bitbucket, request, probed, probeScope));
+            }
+        })) {
+            for (final BitbucketBranch tag : tags) {
+                request.listener().getLogger().println("Checking tag " + tag.getName() + " from " + fullName);
+                count++;
+                if (request.process(new BitbucketTagSCMHead(tag.getName(), tag.getDateMillis()), //
+                    (IntermediateLambda<Object>) () -> {
+                        String hash = tag.getRawNode();
+                        BitbucketCommit commit = hash != null ? resolved.get(hash) : null;
+                        return commit != null ? commit : hash;
+                    }, //
+                        new BitbucketProbeFactory<>(bitbucket, request, probed, probeScope), //
+                        new BitbucketRevisionFactory<>(bitbucket), //
+                        new CriteriaWitness(request))) {
+                    request.listener().getLogger().format("%n  %d tags were processed (query completed)%n", count);
+                    return;
+                }
+            }
         }
         request.listener().getLogger().format("%n  %d tags were processed%n", count);
     }
@@ -1087,6 +1293,45 @@ public class BitbucketSCMSource extends SCMSource {
         return AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(getServerUrl()), credentials());
     }
 
+    /**
+     * Forgets the directory listings fetched by the probes.
+     */
+    /* package */ static void clearProbedDirectories() {
+        probedDirectories.evictAll();
+    }
+
+    /**
+     * Lists ahead the root directory of the heads of the first branches of the repository, where the probes usually
+     * look, so that a scan checking whether the repository has a head meeting the criteria finds them cached.
+     *
+     * @param branches how many of the first branches to prepare.
+     */
+    /* package */ void prepareProbes(int branches) throws IOException, InterruptedException {
+        if (branches <= 0) {
+            return;
+        }
+        final BitbucketApi bitbucket = buildBitbucketClient();
+        BitbucketProbeFactory<BitbucketCommit> probeFactory =
+                new BitbucketProbeFactory<>(bitbucket, null, new ConcurrentHashMap<>(), probeScope());
+        int count = 0;
+        for (BitbucketBranch branch : bitbucket.iterateBranches()) {
+            if (count++ >= branches) {
+                break;
+            }
+            if (branch.getRawNode() != null) {
+                probeFactory.listDirectory(branch.getRawNode(), "");
+            }
+        }
+    }
+
+    /**
+     * Tells apart the directory listings fetched by the probes of different servers and credentials.
+     */
+    private String probeScope() {
+        BitbucketAuthenticator authenticator = authenticator();
+        return getServerUrl() + '\n' + (authenticator == null ? "" : authenticator.getFingerprint());
+    }
+
     @NonNull
     @Override
     protected List<Action> retrieveActions(@CheckForNull SCMSourceEvent event,
@@ -1489,10 +1734,23 @@ public class BitbucketSCMSource extends SCMSource {
     private static class BitbucketProbeFactory<I> implements SCMSourceRequest.ProbeLambda<SCMHead, I> {
         private final BitbucketApi bitbucket;
         private final BitbucketSCMSourceRequest request;
+        /**
+         * The paths already probed, shared between the probes of a scan.
+         */
+        @NonNull
+        private final Map<String, Boolean> probed;
+        /**
+         * The server and credentials of the scan, the directory listings are only shared with scans of the same.
+         */
+        @NonNull
+        private final String scope;
 
-        public BitbucketProbeFactory(BitbucketApi bitbucket, BitbucketSCMSourceRequest request) {
+        public BitbucketProbeFactory(BitbucketApi bitbucket, BitbucketSCMSourceRequest request,
+                                     @NonNull Map<String, Boolean> probed, @NonNull String scope) {
             this.bitbucket = bitbucket;
             this.request = request;
+            this.probed = probed;
+            this.scope = scope;
         }
 
         @NonNull
@@ -1543,13 +1801,74 @@ public class BitbucketSCMSource extends SCMSource {
                     }
 
                     try {
-                        return bitbucket.checkPathExists(hash, path);
+                        String file = StringUtils.strip(path, "/");
+                        int slash = file.lastIndexOf('/');
+                        Set<String> names = listDirectory(hash, slash < 0 ? "" : file.substring(0, slash));
+                        if (names != null) {
+                            return names.contains(file.substring(slash + 1));
+                        }
+                        String key = bitbucket.getOwner() + '/' + bitbucket.getRepositoryName() + '@' + hash + ':' + path;
+                        Boolean exists = probed.get(key);
+                        if (exists == null) {
+                            exists = bitbucket.checkPathExists(hash, path);
+                            probed.put(key, exists);
+                        }
+                        return exists;
                     } catch (InterruptedException e) {
                         throw new IOException("Interrupted", e);
                     }
                 }
             };
         }
+
+        /**
+         * Lists the names in a directory of a commit, so that all the paths probed in it are answered at once.
+         *
+         * @return the names in the directory, empty if it does not exist, or {@code null} if it could not be listed
+         *     or holds too many names to be listed in a single request.
+         */
+        @CheckForNull
+        private Set<String> listDirectory(@NonNull String hash, @NonNull String directory)
+                throws InterruptedException {
+            try {
+                String key = scope + '\n' + bitbucket.getOwner() + '/' + bitbucket.getRepositoryName()
+                        + '@' + hash + ':' + directory;
+                Set<String> listed = probedDirectories.get(key, () -> {
+                    BitbucketSCMFile file = new BitbucketSCMFile((BitbucketSCMFileSystem) null, bitbucket, hash, hash);
+                    for (String name : StringUtils.split(directory, '/')) {
+                        file = new BitbucketSCMFile(file, name, SCMFile.Type.DIRECTORY, hash);
+                    }
+                    Iterable<SCMFile> children;
+                    try {
+                        children = bitbucket.getSmallDirectoryContent(file);
+                    } catch (FileNotFoundException e) {
+                        return Collections.emptySet();
+                    }
+                    if (children == null) {
+                        // probing the paths one by one is cheaper than walking all the pages
+                        return LARGE_DIRECTORY;
+                    }
+                    Set<String> names = new HashSet<>();
+                    for (SCMFile child : children) {
+                        // Bitbucket Cloud names the children after their path
+                        names.add(StringUtils.substringAfterLast("/" + child.getName(), "/"));
+                    }
+                    if (names.isEmpty()) {
+                        // git does not record empty directories, something else went wrong
+                        throw new IOException("Empty listing of directory '" + directory + "' at " + hash);
+                    }
+                    return names;
+                });
+                return listed == LARGE_DIRECTORY ? null : listed;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    throw (InterruptedException) e.getCause();
+                }
+                LOGGER.log(Level.FINE, "Could not list directory '" + directory + "' at " + hash
+                        + " on repository " + bitbucket.getOwner() + "/" + bitbucket.getRepositoryName(), e);
+                return null;
+            }
+        }
     }
 
     private class BitbucketRevisionFactory<I> implements SCMSourceRequest.LazyRevisionLambda<SCMHead, SCMRevision, I> {
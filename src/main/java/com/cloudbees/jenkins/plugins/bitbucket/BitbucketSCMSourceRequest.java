@@ -25,6 +25,7 @@ package com.cloudbees.jenkins.plugins.bitbucket;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketListingQuery;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -42,6 +43,9 @@ import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMHeadOrigin;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
 import jenkins.scm.api.trait.SCMSourceRequest;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import jenkins.scm.impl.trait.WildcardSCMHeadFilterTrait;
+import org.apache.commons.lang.StringUtils;
 
 /**
  * The {@link SCMSourceRequest} for bitbucket.
@@ -94,6 +98,21 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
      */
     @CheckForNull
     private final Set<String> requestedTagNames;
+    /**
+     * {@code true} if some branches are filtered according to the pull requests filed from them.
+     */
+    private final boolean filterBranchesByPullRequests;
+    /**
+     * The query narrowing the branch and tag listings down to the heads the filters may keep.
+     */
+    @NonNull
+    private final BitbucketListingQuery refQuery;
+    /**
+     * The query narrowing the pull request listing down to the pull requests the discovery traits and filters may
+     * keep.
+     */
+    @NonNull
+    private final BitbucketListingQuery pullRequestQuery;
     /**
      * The {@link BitbucketSCMSource#getRepoOwner()}.
      */
@@ -184,6 +203,28 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
             requestedOriginBranchNames = null;
             requestedTagNames = null;
         }
+        filterBranchesByPullRequests = context.filters().stream().anyMatch(filter ->
+                filter instanceof BranchDiscoveryTrait.ExcludeOriginPRBranchesSCMHeadFilter
+                || filter instanceof BranchDiscoveryTrait.OnlyOriginPRBranchesSCMHeadFilter);
+        String namePattern = null;
+        for (SCMSourceTrait trait : source.getTraits()) {
+            if (trait instanceof WildcardSCMHeadFilterTrait) {
+                // the names of branches and tags, and the target of pull requests, have to match one of the includes
+                String includes = StringUtils.trimToEmpty(((WildcardSCMHeadFilterTrait) trait).getIncludes());
+                if (!includes.isEmpty() && !StringUtils.containsAny(includes, " \t")) {
+                    namePattern = includes;
+                    break;
+                }
+            }
+        }
+        refQuery = new BitbucketListingQuery(namePattern, null);
+        if (filterBranchesByPullRequests) {
+            // the branch filters need every open pull request
+            pullRequestQuery = BitbucketListingQuery.ALL;
+        } else {
+            pullRequestQuery = new BitbucketListingQuery(namePattern,
+                    fetchOriginPRs == fetchForkPRs ? null : fetchOriginPRs);
+        }
         repoOwner = source.getRepoOwner();
         repository = source.getRepository();
         pullRequestData = new HashMap<>();
@@ -322,6 +363,38 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
         return requestedTagNames;
     }
 
+    /**
+     * Returns {@code true} if the branches are filtered according to the pull requests filed from them, in which case
+     * every open pull request has to be known in order to process the requested branches.
+     *
+     * @return {@code true} if the branches are filtered according to the pull requests filed from them.
+     */
+    public final boolean isFilterBranchesByPullRequests() {
+        return filterBranchesByPullRequests;
+    }
+
+    /**
+     * Returns the query narrowing the branch and tag listings down to the heads the filters may keep. The filters
+     * still check every listed head.
+     *
+     * @return the query for the branch and tag listings.
+     */
+    @NonNull
+    public final BitbucketListingQuery getRefQuery() {
+        return refQuery;
+    }
+
+    /**
+     * Returns the query narrowing the pull request listing down to the pull requests the discovery traits and filters
+     * may keep. The traits and filters still check every listed pull request.
+     *
+     * @return the query for the pull request listing.
+     */
+    @NonNull
+    public final BitbucketListingQuery getPullRequestQuery() {
+        return pullRequestQuery;
+    }
+
     /**
      * Returns the {@link BitbucketSCMSource#getRepoOwner()}
      *
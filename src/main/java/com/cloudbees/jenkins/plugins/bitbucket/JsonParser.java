@@ -23,8 +23,11 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket;
 
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import com.google.common.base.Charsets;
 import java.io.IOException;
@@ -32,6 +35,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.function.Consumer;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -55,6 +59,42 @@ public final class JsonParser {
         return mapper.readValue(data, type);
     }
 
+    /**
+     * Parses a paged response handing each element of its {@code values} array to the consumer as soon as it is read,
+     * so that a large page is never bound as a whole. The returned page has all its other properties bound and an
+     * empty list of values.
+     *
+     * @param data the JSON object to parse
+     * @param pageType the type of the page
+     * @param valueType the type of the elements of the {@code values} array
+     * @param consumer receives the non null elements in the order they appear
+     * @return the page without its values
+     * @throws IOException if the content is not a JSON object or cannot be bound to the given types
+     */
+    public static <P, V> P toJavaPage(Reader data, JavaType pageType, JavaType valueType, Consumer<? super V> consumer) throws IOException {
+        try (com.fasterxml.jackson.core.JsonParser parser = mapper.getFactory().createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object but found " + parser.currentToken());
+            }
+            ObjectNode page = mapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "values".equals(field)) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        V value = mapper.readValue(parser, valueType);
+                        if (value != null) {
+                            consumer.accept(value);
+                        }
+                    }
+                    page.putArray(field);
+                } else {
+                    page.set(field, mapper.readTree(parser));
+                }
+            }
+            return mapper.readerFor(pageType).readValue(page);
+        }
+    }
+
     public static String toJson(Object value) throws IOException {
         return mapper.writeValueAsString(value);
     }
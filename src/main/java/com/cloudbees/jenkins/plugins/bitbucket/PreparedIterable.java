@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An iterable that prepares up to a number of the next items concurrently while the current one is processed by the
+ * caller, so that the slow work of each item overlaps while the items are still handed over in their original order.
+ * <p>
+ * A failed preparation is only logged, the caller is expected to redo whatever was not prepared.
+ *
+ * @param <V> the type of object iterated.
+ */
+final class PreparedIterable<V> implements Iterable<V>, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(PreparedIterable.class.getName());
+
+    /**
+     * The delegate.
+     */
+    @NonNull
+    private final Iterable<V> delegate;
+    /**
+     * The preparation to run for each item.
+     */
+    @NonNull
+    private final Preparation<? super V> preparation;
+    /**
+     * How many items may be prepared ahead of the one being processed, {@code 0} prepares nothing.
+     */
+    private final int ahead;
+    /**
+     * The preparations not yet handed over.
+     */
+    private final Deque<Future<?>> pending = new ArrayDeque<>();
+
+    PreparedIterable(@NonNull Iterable<V> delegate, int ahead, @NonNull Preparation<? super V> preparation) {
+        this.delegate = delegate;
+        this.ahead = ahead;
+        this.preparation = preparation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<V> iterator() {
+        final Iterator<V> iterator = delegate.iterator();
+        if (ahead <= 0) {
+            return iterator;
+        }
+        return new Iterator<V>() {
+            private final Deque<V> items = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                return !items.isEmpty() || iterator.hasNext();
+            }
+
+            @Override
+            public V next() {
+                fill();
+                if (items.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                V item = items.removeFirst();
+                await(pending.removeFirst(), item);
+                fill();
+                return item;
+            }
+
+            private void fill() {
+                while (pending.size() < ahead && iterator.hasNext()) {
+                    V item = iterator.next();
+                    items.addLast(item);
+                    pending.addLast(Workers.INSTANCE.submit(() -> {
+                        preparation.prepare(item);
+                        return null;
+                    }));
+                }
+            }
+        };
+    }
+
+    private void await(Future<?> future, V item) {
+        try {
+            future.get();
+        } catch (ExecutionException | CancellationException e) {
+            LOGGER.log(Level.FINE, "Could not prepare " + item, e);
+        } catch (InterruptedException e) {
+            // leave it to the caller to notice
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancels the preparations of the items that were not handed over.
+     */
+    @Override
+    public void close() {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Prepares an item.
+     *
+     * @param <V> the type of object prepared.
+     */
+    interface Preparation<V> {
+        void prepare(@NonNull V item) throws Exception;
+    }
+
+    private static class Workers {
+        private static final ExecutorService INSTANCE = new ThreadPoolExecutor(
+                0, Math.max(1, Integer.getInteger(PreparedIterable.class.getName() + ".threads", 20)),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), PreparedIterable.class.getName()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -67,6 +67,38 @@ public interface BitbucketApi {
     @NonNull
     List<? extends BitbucketPullRequest> getPullRequests() throws IOException, InterruptedException;
 
+    /**
+     * Returns the pull requests in the repository, requesting each page of the listing only when the iteration
+     * reaches it.
+     * The iterator throws a {@link BitbucketException} caused by the {@link IOException} or
+     * {@link InterruptedException} if a page cannot be fetched.
+     * Implementations that cannot page lazily return {@link #getPullRequests()}.
+     *
+     * @return the pull requests in the repository.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketPullRequest> iteratePullRequests() throws IOException, InterruptedException {
+        return getPullRequests();
+    }
+
+    /**
+     * Returns the pull requests in the repository that may match the query, like {@link #iteratePullRequests()}.
+     * Implementations push down the parts of the query their server supports, so the caller still has to check each
+     * pull request.
+     *
+     * @param query the query narrowing the listing down.
+     * @return the pull requests in the repository, at least those matching the query.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketPullRequest> iteratePullRequests(@NonNull BitbucketListingQuery query)
+            throws IOException, InterruptedException {
+        return iteratePullRequests();
+    }
+
     /**
      * Returns a specific pull request.
      *
@@ -141,6 +173,38 @@ public interface BitbucketApi {
     @NonNull
     List<? extends BitbucketBranch> getBranches() throws IOException, InterruptedException;
 
+    /**
+     * Returns the branches in the repository, requesting each page of the listing only when the iteration
+     * reaches it.
+     * The iterator throws a {@link BitbucketException} caused by the {@link IOException} or
+     * {@link InterruptedException} if a page cannot be fetched.
+     * Implementations that cannot page lazily return {@link #getBranches()}.
+     *
+     * @return the branches in the repository.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketBranch> iterateBranches() throws IOException, InterruptedException {
+        return getBranches();
+    }
+
+    /**
+     * Returns the branches in the repository that may match the query, like {@link #iterateBranches()}.
+     * Implementations push down the parts of the query their server supports, so the caller still has to check each
+     * branch.
+     *
+     * @param query the query narrowing the listing down.
+     * @return the branches in the repository, at least those matching the query.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketBranch> iterateBranches(@NonNull BitbucketListingQuery query)
+            throws IOException, InterruptedException {
+        return iterateBranches();
+    }
+
     /**
      * Returns a tag in the repository.
      *
@@ -161,6 +225,38 @@ public interface BitbucketApi {
     @NonNull
     List<? extends BitbucketBranch> getTags() throws IOException, InterruptedException;
 
+    /**
+     * Returns the tags in the repository, requesting each page of the listing only when the iteration
+     * reaches it.
+     * The iterator throws a {@link BitbucketException} caused by the {@link IOException} or
+     * {@link InterruptedException} if a page cannot be fetched.
+     * Implementations that cannot page lazily return {@link #getTags()}.
+     *
+     * @return the tags in the repository.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketBranch> iterateTags() throws IOException, InterruptedException {
+        return getTags();
+    }
+
+    /**
+     * Returns the tags in the repository that may match the query, like {@link #iterateTags()}.
+     * Implementations push down the parts of the query their server supports, so the caller still has to check each
+     * tag.
+     *
+     * @param query the query narrowing the listing down.
+     * @return the tags in the repository, at least those matching the query.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    default Iterable<? extends BitbucketBranch> iterateTags(@NonNull BitbucketListingQuery query)
+            throws IOException, InterruptedException {
+        return iterateTags();
+    }
+
     /**
      * Resolve the commit object given its hash.
      *
@@ -305,6 +401,22 @@ public interface BitbucketApi {
     @Restricted(NoExternalUse.class)
     Iterable<SCMFile> getDirectoryContent(BitbucketSCMFile parent) throws IOException, InterruptedException;
 
+    /**
+     * Returns the children of the given folder if they all fit in the first page of the listing, so that a large
+     * folder is not walked only to look a few names up in it.
+     * Implementations that cannot page return {@link #getDirectoryContent(BitbucketSCMFile)}.
+     *
+     * @param parent to list
+     * @return the children of the given folder or {@code null} if there are more than a page of them.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @Restricted(NoExternalUse.class)
+    @CheckForNull
+    default Iterable<SCMFile> getSmallDirectoryContent(BitbucketSCMFile parent) throws IOException, InterruptedException {
+        return getDirectoryContent(parent);
+    }
+
     /**
      * Return an input stream for the given file.
      *
@@ -1,13 +1,22 @@
 package com.cloudbees.jenkins.plugins.bitbucket.api;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.credentials.BitbucketUsernamePasswordAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.client.Cache;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import hudson.ExtensionList;
 import hudson.ExtensionPoint;
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Factory for creating {@link BitbucketApi} instances to connect to a given server {@link URL}.
@@ -16,6 +25,25 @@ import java.net.URL;
  */
 public abstract class BitbucketApiFactory implements ExtensionPoint {
 
+    private static final Logger LOGGER = Logger.getLogger(BitbucketApiFactory.class.getName());
+
+    /**
+     * How long after it was last handed out a client created by a pooled factory is handed out again to callers
+     * asking for the same server, credentials, owner and repository, {@code 0} to create a new client for every caller.
+     */
+    private static final int POOL_SECONDS = Integer.getInteger(BitbucketApiFactory.class.getName() + ".poolSeconds", 300);
+
+    /**
+     * The maximum number of clients kept in the pool.
+     */
+    private static final int POOL_SIZE = Integer.getInteger(BitbucketApiFactory.class.getName() + ".poolSize", 500);
+
+    /**
+     * The pooled clients, kept while they are used and closed once dropped.
+     */
+    private static final Cache<String, BitbucketApi> POOL =
+            new Cache<>(POOL_SECONDS, TimeUnit.SECONDS, POOL_SIZE, true, BitbucketApiFactory::close);
+
     /**
      * Tests if the supplied URL is supported by this factory.
      *
@@ -42,6 +70,17 @@ public abstract class BitbucketApiFactory implements ExtensionPoint {
                                            @CheckForNull String projectKey,
                                            @CheckForNull String repository);
 
+    /**
+     * Tells whether the clients created by this factory hold no per-caller state and can therefore be handed out
+     * to every caller asking for the same server, credentials, owner and repository for a while, so that their
+     * connections and caches are reused rather than rebuilt on every call.
+     *
+     * @return {@code true} if the clients created by this factory can be shared.
+     */
+    protected boolean isPooled() {
+        return false;
+    }
+
     @NonNull
     @Deprecated
     protected BitbucketApi create(@Nullable String serverUrl,
@@ -72,12 +111,43 @@ public abstract class BitbucketApiFactory implements ExtensionPoint {
                                            @CheckForNull String repository) {
         for (BitbucketApiFactory factory : ExtensionList.lookup(BitbucketApiFactory.class)) {
             if (factory.isMatch(serverUrl)) {
-                return factory.create(serverUrl, authenticator, owner, projectKey, repository);
+                if (POOL_SECONDS <= 0 || !factory.isPooled()) {
+                    return factory.create(serverUrl, authenticator, owner, projectKey, repository);
+                }
+                String key = factory.getClass().getName() + '\n' + serverUrl + '\n'
+                        + (authenticator == null ? "" : authenticator.getClass().getName() + ':' + authenticator.getFingerprint())
+                        + '\n' + owner + '\n' + projectKey + '\n' + repository;
+                try {
+                    return POOL.get(key, () -> factory.create(serverUrl, authenticator, owner, projectKey, repository));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
             }
         }
         throw new IllegalArgumentException("Unsupported Bitbucket server URL: " + serverUrl);
     }
 
+    /**
+     * Drops every pooled client, e.g. after the endpoint settings changed.
+     */
+    @Restricted(NoExternalUse.class)
+    public static void clearPool() {
+        POOL.evictAll();
+    }
+
+    private static void close(BitbucketApi client) {
+        if (client instanceof Closeable) {
+            try {
+                ((Closeable) client).close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not close a pooled Bitbucket client", e);
+            }
+        }
+    }
+
     @NonNull
     @Deprecated
     public static BitbucketApi newInstance(@Nullable String serverUrl,
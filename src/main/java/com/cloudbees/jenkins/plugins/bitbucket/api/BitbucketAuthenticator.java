@@ -27,7 +27,9 @@ package com.cloudbees.jenkins.plugins.bitbucket.api;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
+import java.util.UUID;
 import jenkins.authentication.tokens.api.AuthenticationTokenContext;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.client.protocol.HttpClientContext;
@@ -40,6 +42,11 @@ public abstract class BitbucketAuthenticator {
 
     private final String id;
 
+    /**
+     * A value unique to this authenticator, for the subclasses that cannot fingerprint their credentials.
+     */
+    private final String instanceFingerprint = UUID.randomUUID().toString();
+
     /**
      * The key for bitbucket URL as reported in an {@link AuthenticationTokenContext}
      */
@@ -81,6 +88,30 @@ public abstract class BitbucketAuthenticator {
         return id;
     }
 
+    /**
+     * Returns a digest of the content of the credentials used, so that what is cached for some credentials is
+     * neither shared with other credentials having the same id (e.g. in another folder) nor reused once their
+     * secret changed.
+     * <p>
+     * The default implementation cannot see the secret and returns a value unique to this authenticator,
+     * override it so that authenticators built from the same credentials share what is cached for them.
+     *
+     * @return the fingerprint of the credentials used.
+     */
+    public String getFingerprint() {
+        return instanceFingerprint;
+    }
+
+    /**
+     * Digests the given parts of some credentials into a fingerprint.
+     *
+     * @param parts the identifying and secret parts of the credentials.
+     * @return the fingerprint of the credentials.
+     */
+    protected static String fingerprint(String... parts) {
+        return DigestUtils.sha256Hex(String.join("\n", parts));
+    }
+
     /**
      * Configures an {@link HttpClientBuilder}. Override if you need to adjust connection setup.
      * @param builder The client builder.
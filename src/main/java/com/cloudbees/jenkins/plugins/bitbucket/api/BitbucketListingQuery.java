@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.api;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Narrows a listing of branches, tags or pull requests down to the values the scan may keep, so that the server
+ * filters them out rather than the scan after downloading them.
+ * <p>
+ * A query only ever describes a superset of the values the scan keeps: implementations push down the parts their
+ * server supports and ignore the others, and callers still check every listed value.
+ *
+ * @since 2.2.0
+ */
+public final class BitbucketListingQuery {
+
+    /**
+     * The query that lists everything.
+     */
+    public static final BitbucketListingQuery ALL = new BitbucketListingQuery(null, null);
+
+    /**
+     * The wildcard pattern ({@code *} matching any characters) the names of branches and tags, or the name of the
+     * destination branch of pull requests, match.
+     */
+    @CheckForNull
+    private final String namePattern;
+
+    /**
+     * {@code true} to list only the pull requests from the repository itself, {@code false} only the ones from
+     * forks, {@code null} both.
+     */
+    @CheckForNull
+    private final Boolean originPullRequests;
+
+    public BitbucketListingQuery(@CheckForNull String namePattern, @CheckForNull Boolean originPullRequests) {
+        this.namePattern = namePattern == null || namePattern.isEmpty() || "*".equals(namePattern) ? null : namePattern;
+        this.originPullRequests = originPullRequests;
+    }
+
+    /**
+     * Returns the wildcard pattern the names match.
+     *
+     * @return the pattern or {@code null} if any name matches.
+     */
+    @CheckForNull
+    public String getNamePattern() {
+        return namePattern;
+    }
+
+    /**
+     * Returns the longest part of the name pattern without wildcard, which every matching name contains.
+     *
+     * @return the longest literal part of the pattern or {@code null} if any name matches.
+     */
+    @CheckForNull
+    public String getNameFragment() {
+        if (namePattern == null) {
+            return null;
+        }
+        String longest = null;
+        for (String part : namePattern.split("\\*")) {
+            if (!part.isEmpty() && (longest == null || part.length() > longest.length())) {
+                longest = part;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the exact name if the name pattern has no wildcard.
+     *
+     * @return the exact name or {@code null} if the pattern matches several names.
+     */
+    @CheckForNull
+    public String getExactName() {
+        return namePattern != null && namePattern.indexOf('*') < 0 ? namePattern : null;
+    }
+
+    /**
+     * Tells which pull requests are listed.
+     *
+     * @return {@code true} for the pull requests from the repository itself only, {@code false} for the ones from
+     * forks only, {@code null} for both.
+     */
+    @CheckForNull
+    public Boolean getOriginPullRequests() {
+        return originPullRequests;
+    }
+
+    /**
+     * Tells whether this query lists everything.
+     *
+     * @return {@code true} if nothing is narrowed down.
+     */
+    public boolean isAll() {
+        return namePattern == null && originPullRequests == null;
+    }
+
+    /**
+     * Quotes a value for the {@code q} parameter of Bitbucket Cloud.
+     *
+     * @param value the value.
+     * @return the quoted value.
+     */
+    @NonNull
+    public static String quote(@NonNull String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    @Override
+    public String toString() {
+        return "BitbucketListingQuery{namePattern=" + namePattern + ", originPullRequests=" + originPullRequests + '}';
+    }
+}
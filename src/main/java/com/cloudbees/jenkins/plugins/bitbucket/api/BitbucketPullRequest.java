@@ -23,6 +23,7 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket.api;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.List;
 
@@ -68,4 +69,13 @@ public interface BitbucketPullRequest {
     String getAuthorIdentifier();
 
     List<BitbucketReviewer> getReviewers();
+
+    /**
+     * @return the state of this pull request, for example {@code OPEN}, {@code MERGED} or {@code DECLINED}, or
+     * {@code null} if unknown.
+     */
+    @CheckForNull
+    default String getState() {
+        return null;
+    }
 }
@@ -17,6 +17,8 @@ public class BitbucketAccessTokenAuthenticator extends BitbucketAuthenticator {
 
     private final Secret token;
 
+    private final String fingerprint;
+
     /**
      * Constructor.
      *
@@ -25,6 +27,7 @@ public class BitbucketAccessTokenAuthenticator extends BitbucketAuthenticator {
     public BitbucketAccessTokenAuthenticator(StringCredentials credentials) {
         super(credentials);
         token = credentials.getSecret();
+        fingerprint = fingerprint(credentials.getId(), token.getPlainText());
     }
 
     /**
@@ -36,6 +39,11 @@ public class BitbucketAccessTokenAuthenticator extends BitbucketAuthenticator {
         request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token.getPlainText());
     }
 
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
     @Override
     public StandardUsernameCredentials getCredentialsForScm() {
         return new UsernamePasswordCredentialsImpl(
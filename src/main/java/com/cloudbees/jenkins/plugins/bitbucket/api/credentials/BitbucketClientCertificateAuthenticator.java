@@ -32,6 +32,12 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.net.ssl.SSLContext;
@@ -46,6 +52,7 @@ public class BitbucketClientCertificateAuthenticator extends BitbucketAuthentica
 
     private final KeyStore keyStore;
     private final Secret password;
+    private final String fingerprint;
 
     private static final Logger LOGGER = Logger.getLogger(BitbucketClientCertificateAuthenticator.class.getName());
 
@@ -56,6 +63,37 @@ public class BitbucketClientCertificateAuthenticator extends BitbucketAuthentica
         super(credentials);
         keyStore = credentials.getKeyStore();
         password = credentials.getPassword();
+        fingerprint = fingerprintOf(credentials.getId(), keyStore, password);
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint == null ? super.getFingerprint() : fingerprint;
+    }
+
+    /**
+     * Fingerprints the certificates of the key store along with its password.
+     *
+     * @return the fingerprint or {@code null} if the key store cannot be read.
+     */
+    private static String fingerprintOf(String id, KeyStore keyStore, Secret password) {
+        if (keyStore == null) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(id);
+        parts.add(password == null ? "" : password.getPlainText());
+        try {
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                parts.add(alias);
+                parts.add(certificate == null ? "" : Base64.getEncoder().encodeToString(certificate.getEncoded()));
+            }
+        } catch (KeyStoreException | CertificateEncodingException e) {
+            LOGGER.log(Level.FINE, "Could not fingerprint the client certificate", e);
+            return null;
+        }
+        return fingerprint(parts.toArray(new String[0]));
     }
 
     /**
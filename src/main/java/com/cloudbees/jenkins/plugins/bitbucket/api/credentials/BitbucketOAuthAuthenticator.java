@@ -5,6 +5,12 @@ import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpRequest;
 import org.scribe.model.OAuthConfig;
@@ -13,7 +19,29 @@ import org.scribe.model.Token;
 
 public class BitbucketOAuthAuthenticator extends BitbucketAuthenticator {
 
-    private Token token;
+    /**
+     * How long before its expiry a token is renewed, in seconds.
+     */
+    private static final long REFRESH_MARGIN = TimeUnit.SECONDS.toMillis(Math.max(0,
+            Long.getLong(BitbucketOAuthAuthenticator.class.getName() + ".refreshMarginSeconds", 300L)));
+
+    /**
+     * The lifetime of the tokens whose response does not tell it.
+     */
+    private static final long DEFAULT_LIFETIME = TimeUnit.HOURS.toMillis(1);
+
+    private static final Pattern EXPIRES_IN = Pattern.compile("\"expires_in\"\\s*:\\s*(\\d+)");
+
+    /**
+     * The tokens by consumer, shared by the authenticators as one is created for each client.
+     */
+    private static final Map<String, CachedToken> TOKENS = new ConcurrentHashMap<>();
+
+    private final OAuthConfig config;
+
+    private final CachedToken token;
+
+    private final String fingerprint;
 
     /**
      * Constructor.
@@ -23,11 +51,13 @@ public class BitbucketOAuthAuthenticator extends BitbucketAuthenticator {
     public BitbucketOAuthAuthenticator(StandardUsernamePasswordCredentials credentials) {
         super(credentials);
 
-        OAuthConfig config = new OAuthConfig(credentials.getUsername(), credentials.getPassword().getPlainText());
-
-        BitbucketOAuthService OAuthService = (BitbucketOAuthService) new BitbucketOAuth().createService(config);
-
-        token = OAuthService.getAccessToken(OAuthConstants.EMPTY_TOKEN, null);
+        String secret = credentials.getPassword().getPlainText();
+        config = new OAuthConfig(credentials.getUsername(), secret);
+        fingerprint = fingerprint(credentials.getId(), credentials.getUsername(), secret);
+        token = TOKENS.computeIfAbsent(credentials.getUsername() + ':' + DigestUtils.sha256Hex(secret),
+                key -> new CachedToken());
+        // fail early as before if the consumer cannot get a token
+        token.get(config);
     }
 
     /**
@@ -35,12 +65,59 @@ public class BitbucketOAuthAuthenticator extends BitbucketAuthenticator {
      */
     @Override
     public void configureRequest(HttpRequest request) {
-        request.addHeader(OAuthConstants.HEADER, "Bearer " + this.token.getToken());
+        request.addHeader(OAuthConstants.HEADER, "Bearer " + token.get(config).getToken());
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
     }
 
     @Override
     public StandardUsernameCredentials getCredentialsForScm() {
         return new UsernamePasswordCredentialsImpl(
-                CredentialsScope.GLOBAL, null, null, StringUtils.EMPTY, token.getToken());
+                CredentialsScope.GLOBAL, null, null, StringUtils.EMPTY, token.get(config).getToken());
+    }
+
+    /**
+     * Returns how long a token is valid according to the response it came with.
+     */
+    static long lifetimeOf(Token token) {
+        String response;
+        try {
+            response = token.getRawResponse();
+        } catch (IllegalStateException e) {
+            // not obtained from a response
+            return DEFAULT_LIFETIME;
+        }
+        Matcher matcher = response == null ? null : EXPIRES_IN.matcher(response);
+        if (matcher != null && matcher.find()) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1)));
+            } catch (NumberFormatException e) {
+                return DEFAULT_LIFETIME;
+            }
+        }
+        return DEFAULT_LIFETIME;
+    }
+
+    /**
+     * The token of a consumer, renewed by the first caller that needs it once it is about to expire while the others
+     * wait for it.
+     */
+    private static final class CachedToken {
+        private Token token;
+        private long renewAt;
+
+        synchronized Token get(OAuthConfig config) {
+            if (token == null || System.currentTimeMillis() >= renewAt) {
+                BitbucketOAuthService service = (BitbucketOAuthService) new BitbucketOAuth().createService(config);
+                Token renewed = service.getAccessToken(OAuthConstants.EMPTY_TOKEN, null);
+                long lifetime = lifetimeOf(renewed);
+                renewAt = System.currentTimeMillis() + lifetime - Math.min(REFRESH_MARGIN, lifetime / 2);
+                token = renewed;
+            }
+            return token;
+        }
     }
 }
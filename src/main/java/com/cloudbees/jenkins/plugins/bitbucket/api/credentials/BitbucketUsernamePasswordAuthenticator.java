@@ -51,6 +51,8 @@ public class BitbucketUsernamePasswordAuthenticator extends BitbucketAuthenticat
 
     private final UsernamePasswordCredentials httpCredentials;
 
+    private final String fingerprint;
+
     /**
      * Constructor.
      * @param credentials the username/password that will be used
@@ -59,6 +61,7 @@ public class BitbucketUsernamePasswordAuthenticator extends BitbucketAuthenticat
         super(credentials);
         httpCredentials = new UsernamePasswordCredentials(credentials.getUsername(),
                 credentials.getPassword().getPlainText());
+        fingerprint = fingerprint(credentials.getId(), httpCredentials.getUserName(), httpCredentials.getPassword());
     }
 
     /**
@@ -78,6 +81,11 @@ public class BitbucketUsernamePasswordAuthenticator extends BitbucketAuthenticat
         context.setAuthCache(authCache);
     }
 
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
     @Override
     public StandardUsernameCredentials getCredentialsForScm() {
         return new UsernamePasswordCredentialsImpl(
@@ -31,6 +31,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCloudWorkspace;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketListingQuery;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
@@ -43,6 +44,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.client.branch.BitbucketCloudCommi
 import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestCommits;
 import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestValue;
+import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestValueDestination;
 import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequests;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.BitbucketCloudRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.BitbucketRepositoryHook;
@@ -55,6 +57,7 @@ import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredenti
 import com.damnhandy.uri.template.UriTemplate;
 import com.damnhandy.uri.template.impl.Operator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.ProxyConfiguration;
@@ -62,9 +65,13 @@ import hudson.Util;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
@@ -72,13 +79,19 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import javax.imageio.ImageIO;
 import jenkins.model.Jenkins;
 import jenkins.scm.api.SCMFile;
@@ -112,6 +125,7 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.StandardHttpRequestRetryHandler;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.ProtectedExternally;
@@ -121,7 +135,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-public class BitbucketCloudApiClient implements BitbucketApi {
+public class BitbucketCloudApiClient implements BitbucketApi, Closeable {
 
     private static final Logger LOGGER = Logger.getLogger(BitbucketCloudApiClient.class.getName());
     private static final HttpHost API_HOST = HttpHost.create("https://api.bitbucket.org");
@@ -129,9 +143,56 @@ public class BitbucketCloudApiClient implements BitbucketApi {
     private static final String V2_WORKSPACES_API_BASE_URL = "https://api.bitbucket.org/2.0/workspaces";
     private static final String REPO_URL_TEMPLATE = V2_API_BASE_URL + "{/owner,repo}";
     private static final int API_RATE_LIMIT_CODE = 429;
+    private static final long API_RATE_LIMIT_SLEEP = SECONDS.toMillis(5);
+    private static final long API_RATE_LIMIT_MAX_SLEEP = MINUTES.toMillis(30);
     // Limit images to 16k
     private static final int MAX_AVATAR_LENGTH = 16384;
     private static final int MAX_PAGE_LENGTH = 100;
+    /**
+     * How many destination branches of the pull requests are looked up by a single request.
+     */
+    private static final int DESTINATION_BRANCHES_PER_REQUEST = 20;
+
+    /**
+     * Whether listings only request the fields the plugin maps, set to {@code true} to request the full objects.
+     */
+    private static final boolean FULL_RESPONSES = Boolean.getBoolean(BitbucketCloudApiClient.class.getName() + ".fullResponses");
+    private static final String PAGE_FIELDS = "next,page,pagelen,size";
+    /**
+     * The fields of a pull request listing mapped by {@link BitbucketPullRequestValue}.
+     */
+    static final String PULL_REQUEST_FIELDS = PAGE_FIELDS
+            + ",values.id,values.title,values.state,values.updated_on,values.links.html,values.author.account_id,values.author.nickname"
+            + ",values.source.repository,values.source.branch.name,values.source.commit.hash"
+            + ",values.destination.repository,values.destination.branch.name,values.destination.commit.hash"
+            + ",values.participants.approved,values.participants.user.account_id";
+    /**
+     * The fields of a branch or tag listing mapped by {@link BitbucketCloudBranch}.
+     */
+    static final String BRANCH_FIELDS = PAGE_FIELDS
+            + ",values.name,values.target.hash,values.target.date,values.target.message,values.target.author.raw";
+    /**
+     * The fields of a repository listing mapped by {@link BitbucketCloudRepository}.
+     */
+    private static final String REPOSITORY_FIELDS = PAGE_FIELDS
+            + ",values.scm,values.full_name,values.owner.username,values.owner.display_name,values.updated_on"
+            + ",values.is_private,values.links,values.project.key,values.project.name";
+    /**
+     * The fields of a directory listing mapped by {@link BitbucketRepositorySource}.
+     */
+    private static final String SOURCE_FIELDS = PAGE_FIELDS
+            + ",values.path,values.type,values.attributes,values.commit.hash";
+
+    /**
+     * The states of the pull requests listed when updating a snapshot.
+     */
+    private static final List<String> UPDATED_PULL_REQUEST_STATES = Arrays.asList("OPEN", "MERGED", "DECLINED", "SUPERSEDED");
+    private static final JavaType PULL_REQUEST_PAGE_TYPE = JsonParser.mapper.constructType(BitbucketPullRequests.class);
+    private static final JavaType REPOSITORY_PAGE_TYPE = JsonParser.mapper.constructType(PaginatedBitbucketRepository.class);
+    private static final JavaType BRANCH_PAGE_TYPE = JsonParser.mapper.getTypeFactory()
+            .constructParametricType(BitbucketCloudPage.class, BitbucketCloudBranch.class);
+    private static final JavaType SOURCE_PAGE_TYPE = JsonParser.mapper.getTypeFactory()
+            .constructParametricType(BitbucketCloudPage.class, BitbucketRepositorySource.class);
     private static final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
     private CloseableHttpClient client;
     private HttpClientContext context;
@@ -144,6 +205,8 @@ public class BitbucketCloudApiClient implements BitbucketApi {
     private static final Cache<String, AvatarImage> cachedAvatar = new Cache<>(6, HOURS);
     private static final Cache<String, List<BitbucketCloudRepository>> cachedRepositories = new Cache<>(3, HOURS);
     private static final Cache<String, BitbucketCloudCommit> cachedCommits = new Cache<>(24, HOURS);
+    private static final ConditionalRequestCache validatedResponses = new ConditionalRequestCache();
+    static final PullRequestSnapshots pullRequestSnapshots = new PullRequestSnapshots();
     private transient BitbucketRepository cachedRepository;
     private transient String cachedDefaultBranch;
 
@@ -158,6 +221,8 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         stats.add("Team: " + cachedTeam.stats().toString());
         stats.add("Repositories : " + cachedRepositories.stats().toString());
         stats.add("Commits: " + cachedCommits.stats().toString());
+        stats.add("Conditional requests: " + validatedResponses.toString());
+        stats.add("Commit store: " + CommitStore.get().toString());
         return stats;
     }
 
@@ -165,6 +230,8 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         cachedTeam.evictAll();
         cachedRepositories.evictAll();
         cachedCommits.evictAll();
+        validatedResponses.evictAll();
+        CommitStore.get().clear("cloud:");
     }
 
     @Deprecated
@@ -206,6 +273,17 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         this.client = httpClientBuilder.build();
     }
 
+    /**
+     * Releases the resources of the HTTP client. The connection manager is shared, so callers still holding this
+     * client can go on using it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
     @Override
     protected void finalize() throws Throwable {
         if (client != null) {
@@ -239,45 +317,162 @@ public class BitbucketCloudApiClient implements BitbucketApi {
     @NonNull
     @Override
     public List<BitbucketPullRequestValue> getPullRequests() throws InterruptedException, IOException {
-        List<BitbucketPullRequestValue> pullRequests = new ArrayList<>();
+        return PagedIterable.toList(iteratePullRequests());
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketPullRequestValue> iteratePullRequests() {
+        return iteratePullRequests(BitbucketListingQuery.ALL);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketPullRequestValue> iteratePullRequests(@NonNull BitbucketListingQuery query) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getNameFragment() != null) {
+            conditions.add("destination.branch.name ~ " + BitbucketListingQuery.quote(query.getNameFragment()));
+        }
+        if (query.getOriginPullRequests() != null) {
+            // "~" is not case sensitive, while "!=" only keeps more pull requests than needed on a case mismatch
+            conditions.add("source.repository.full_name " + (query.getOriginPullRequests() ? "~ " : "!= ")
+                    + BitbucketListingQuery.quote(owner + "/" + repositoryName));
+        }
+        String q = conditions.isEmpty() ? null : String.join(" AND ", conditions);
+        if (!pullRequestSnapshots.isEnabled()) {
+            return listPullRequests(pullRequestsTemplate(q));
+        }
+
+        String key = owner + "/" + repositoryName + "::"
+                + (authenticator != null ? authenticator.getFingerprint() : "<anonymous>") + "::" + q;
+        return new PagedIterable<>(new PagedIterable.Pages<BitbucketPullRequestValue>() {
+            private boolean listed;
+
+            @Override
+            public List<BitbucketPullRequestValue> next() throws IOException, InterruptedException {
+                if (listed) {
+                    return null;
+                }
+                listed = true;
+                return updatePullRequests(key, q);
+            }
+        });
+    }
+
+    private UriTemplate pullRequestsTemplate(@CheckForNull String q) {
         // we can not use the default max pagelen also if documented
         // https://developer.atlassian.com/bitbucket/api/2/reference/resource/repositories/%7Busername%7D/%7Brepo_slug%7D/pullrequests#get
         // so because with values greater than 50 the API returns HTTP 400
         int pageLen = 50;
-        UriTemplate template = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/pullrequests{?page,pagelen}")
+        UriTemplate template = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/pullrequests{?page,pagelen,q,sort,state*,fields}")
                 .set("owner", owner)
                 .set("repo", repositoryName)
-                .set("pagelen", pageLen);
+                .set("pagelen", pageLen)
+                .set("page", 1);
+        if (!FULL_RESPONSES) {
+            template.set("fields", PULL_REQUEST_FIELDS);
+        }
+        if (q != null) {
+            template.set("q", q);
+        }
+        return template;
+    }
 
-        BitbucketPullRequests page;
-        int pageNumber = 1;
-        do {
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
-            }
-            String url = template //
-                    .set("page", pageNumber++) //
-                    .expand();
-            String response = getRequest(url);
-            try {
-                page = JsonParser.toJava(response, BitbucketPullRequests.class);
-            } catch (IOException e) {
-                throw new IOException("I/O error when parsing response from URL: " + url, e);
-            }
-            pullRequests.addAll(page.getValues());
-        } while (page.getNext() != null);
+    private PagedIterable<BitbucketPullRequestValue> listPullRequests(UriTemplate template) {
+        return getPagedResources(template.expand(), PULL_REQUEST_PAGE_TYPE, BitbucketPullRequestValue.class,
+                BitbucketPullRequests::getNext, pullRequests -> {
+                    // PRs with missing destination branch are invalid and should be ignored.
+                    pullRequests.removeIf(this::shouldIgnore);
 
-        // PRs with missing destination branch are invalid and should be ignored.
-        pullRequests.removeIf(this::shouldIgnore);
+                    for (BitbucketPullRequestValue pullRequest : pullRequests) {
+                        setupClosureForPRBranch(pullRequest);
+                    }
+                });
+    }
 
+    /**
+     * Lists the open pull requests by only asking for the ones updated since the snapshot of the previous listing,
+     * or all of them if there is no snapshot to update.
+     * <p>
+     * A push to the destination branch does not change the update time of a pull request, so the destination of the
+     * pull requests of an updated snapshot is pointed at the current head of their branch.
+     *
+     * @param key the snapshot key.
+     * @param q the conditions of the listing.
+     * @return the open pull requests.
+     */
+    private List<BitbucketPullRequestValue> updatePullRequests(String key, @CheckForNull String q)
+            throws IOException, InterruptedException {
+        PullRequestSnapshots.Snapshot snapshot = pullRequestSnapshots.get(key);
+        boolean updated = snapshot != null;
+        if (snapshot == null) {
+            snapshot = PullRequestSnapshots.Snapshot.of(PagedIterable.toList(listPullRequests(pullRequestsTemplate(q))));
+        } else {
+            // the boundary is included as several pull requests may share the same update time
+            String since = "updated_on >= " + snapshot.getHighWaterMark();
+            UriTemplate template = pullRequestsTemplate(q == null ? since : q + " AND " + since)
+                    .set("sort", "-updated_on")
+                    // closed pull requests are listed too, so that they get dropped from the snapshot
+                    .set("state", UPDATED_PULL_REQUEST_STATES);
+            List<BitbucketPullRequestValue> updates = PagedIterable.toList(getPagedResources(template.expand(),
+                    PULL_REQUEST_PAGE_TYPE, BitbucketPullRequestValue.class, BitbucketPullRequests::getNext, pullRequests -> {}));
+            snapshot = snapshot.update(updates, pullRequest -> "OPEN".equals(pullRequest.getState()) && !shouldIgnore(pullRequest));
+            LOGGER.log(Level.FINE, "Updated the pull requests of {0} from {1} changes", new Object[] {key, updates.size()});
+        }
+        pullRequestSnapshots.put(key, snapshot);
+        List<BitbucketPullRequestValue> pullRequests = new ArrayList<>();
+        for (BitbucketPullRequestValue pullRequest : snapshot.getPullRequests()) {
+            // the snapshot is shared with other listings and clients, which set up and resolve their own pull requests
+            pullRequests.add(pullRequest.copy());
+        }
+        if (updated) {
+            refreshDestinations(pullRequests);
+        }
         for (BitbucketPullRequestValue pullRequest : pullRequests) {
             setupClosureForPRBranch(pullRequest);
         }
-
         return pullRequests;
     }
 
+    /**
+     * Points the destination of the pull requests at the current head of their branch, listing the destination
+     * branches by name.
+     */
+    private void refreshDestinations(List<BitbucketPullRequestValue> pullRequests)
+            throws IOException, InterruptedException {
+        List<String> names = pullRequests.stream()
+                .map(pullRequest -> pullRequest.getDestination().getBranch())
+                .filter(Objects::nonNull)
+                .map(BitbucketCloudBranch::getName)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, String> heads = new HashMap<>();
+        for (int i = 0; i < names.size(); i += DESTINATION_BRANCHES_PER_REQUEST) {
+            String q = names.subList(i, Math.min(names.size(), i + DESTINATION_BRANCHES_PER_REQUEST)).stream()
+                    .map(name -> "name = " + BitbucketListingQuery.quote(name))
+                    .collect(Collectors.joining(" OR "));
+            for (BitbucketCloudBranch branch : iterateBranchesByRef("/refs/branches", q)) {
+                heads.put(branch.getName(), branch.getRawNode());
+            }
+        }
+        for (BitbucketPullRequestValue pullRequest : pullRequests) {
+            BitbucketPullRequestValueDestination destination = pullRequest.getDestination();
+            BitbucketCloudBranch branch = destination.getBranch();
+            String head = branch == null ? null : heads.get(branch.getName());
+            // pull requests only list the abbreviated hash of their destination
+            if (head != null && (branch.getRawNode() == null || !head.startsWith(branch.getRawNode()))) {
+                branch.setRawNode(head);
+                destination.setCommit(new BitbucketCloudCommit(null, null, head, null));
+            }
+        }
+    }
+
     /**
      * PRs with missing source / destination branch are invalid and should be ignored.
      *
@@ -475,6 +670,24 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         return getBranchesByRef("/refs/tags");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketCloudBranch> iterateTags() {
+        return iterateBranchesByRef("/refs/tags");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketCloudBranch> iterateTags(@NonNull BitbucketListingQuery query) {
+        return iterateBranchesByRef("/refs/tags", query);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -502,18 +715,53 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         return getBranchesByRef("/refs/branches");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketCloudBranch> iterateBranches() {
+        return iterateBranchesByRef("/refs/branches");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketCloudBranch> iterateBranches(@NonNull BitbucketListingQuery query) {
+        return iterateBranchesByRef("/refs/branches", query);
+    }
+
     public List<BitbucketCloudBranch> getBranchesByRef(String nodePath) throws IOException, InterruptedException {
-        String url = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + nodePath + "{?pagelen}")
+        return PagedIterable.toList(iterateBranchesByRef(nodePath));
+    }
+
+    private PagedIterable<BitbucketCloudBranch> iterateBranchesByRef(String nodePath) {
+        return iterateBranchesByRef(nodePath, BitbucketListingQuery.ALL);
+    }
+
+    private PagedIterable<BitbucketCloudBranch> iterateBranchesByRef(String nodePath, BitbucketListingQuery query) {
+        return iterateBranchesByRef(nodePath, query.getNameFragment() == null ? null
+                : "name ~ " + BitbucketListingQuery.quote(query.getNameFragment()));
+    }
+
+    private PagedIterable<BitbucketCloudBranch> iterateBranchesByRef(String nodePath, @CheckForNull String q) {
+        UriTemplate template = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + nodePath + "{?pagelen,q,fields}")
                 .set("owner", owner)
                 .set("repo", repositoryName)
-                .set("pagelen", MAX_PAGE_LENGTH)
-                .expand();
-        String response = getRequest(url);
-        try {
-            return getAllBranches(response);
-        } catch (IOException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
+                .set("pagelen", MAX_PAGE_LENGTH);
+        if (!FULL_RESPONSES) {
+            template.set("fields", BRANCH_FIELDS);
+        }
+        if (q != null) {
+            template.set("q", q);
         }
+        String url = template.expand();
+        return getPagedResources(url, BRANCH_PAGE_TYPE, BitbucketCloudBranch.class,
+                (BitbucketCloudPage<BitbucketCloudBranch> page) -> page.getNext(),
+                // Filter the inactive branches out
+                branches -> branches.removeIf(branch -> !branch.isActive()));
     }
 
     /**
@@ -529,11 +777,18 @@ public class BitbucketCloudApiClient implements BitbucketApi {
             .expand();
 
         Callable<BitbucketCloudCommit> request = () -> {
-            String response;
-            try {
-                response = getRequest(url);
-            } catch (FileNotFoundException e) {
-                return null;
+            // a commit addressed by its full hash never changes
+            String key = CommitStore.isFullHash(hash) ? "cloud:" + owner + "/" + repositoryName + "@" + hash : null;
+            String response = key != null ? CommitStore.get().get(key) : null;
+            if (response == null) {
+                try {
+                    response = getRequest(url);
+                } catch (FileNotFoundException e) {
+                    return null;
+                }
+                if (key != null) {
+                    CommitStore.get().put(key, response);
+                }
             }
             try {
                 return JsonParser.toJava(response, BitbucketCloudCommit.class);
@@ -779,9 +1034,12 @@ public class BitbucketCloudApiClient implements BitbucketApi {
             cacheKey.append("::<anonymous>");
         }
 
-        final UriTemplate template = UriTemplate.fromTemplate(V2_API_BASE_URL + "{/owner}{?role,page,pagelen,q}")
+        final UriTemplate template = UriTemplate.fromTemplate(V2_API_BASE_URL + "{/owner}{?role,page,pagelen,q,fields}")
                 .set("owner", owner)
                 .set("pagelen", MAX_PAGE_LENGTH);
+        if (!FULL_RESPONSES) {
+            template.set("fields", REPOSITORY_FIELDS);
+        }
         if (StringUtils.isNotBlank(projectKey)) {
             template.set("q", "project.key=" + "\"" + projectKey + "\""); // q=project.key="<projectKey>"
         }
@@ -792,16 +1050,10 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         Callable<List<BitbucketCloudRepository>> request = () -> {
             List<BitbucketCloudRepository> repositories = new ArrayList<>();
             Integer pageNumber = 1;
-            String url, response;
             PaginatedBitbucketRepository page;
             do {
-                response = getRequest(url = template.set("page", pageNumber).expand());
-                try {
-                    page = JsonParser.toJava(response, PaginatedBitbucketRepository.class);
-                    repositories.addAll(page.getValues());
-                } catch (IOException e) {
-                    throw new IOException("I/O error when parsing response from URL: " + url, e);
-                }
+                String url = template.set("page", pageNumber).expand();
+                page = getPage(url, REPOSITORY_PAGE_TYPE, BitbucketCloudRepository.class, repositories::add);
                 pageNumber++;
             } while (page.getNext() != null);
             repositories.sort(Comparator.comparing(BitbucketCloudRepository::getRepositoryName));
@@ -876,7 +1128,10 @@ public class BitbucketCloudApiClient implements BitbucketApi {
     protected CloseableHttpResponse executeMethod(HttpHost host, HttpRequestBase httpMethod) throws InterruptedException, IOException {
         HttpClientContext requestContext = null;
         if (API_HOST.equals(host)) {
-            requestContext = context;
+            if (context != null) {
+                // the client may be shared between threads, keep the state of this request out of the shared context
+                requestContext = HttpClientContext.adapt(new BasicHttpContext(context));
+            }
             if (authenticator != null) {
                 authenticator.configureRequest(httpMethod);
             }
@@ -892,17 +1147,20 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         httpMethod.setConfig(requestConfig.build());
 
         CloseableHttpResponse response = client.execute(host, httpMethod, requestContext);
-        while (response.getStatusLine().getStatusCode() == API_RATE_LIMIT_CODE) {
+        long forcedEnd = System.currentTimeMillis() + API_RATE_LIMIT_MAX_SLEEP;
+        while (response.getStatusLine().getStatusCode() == API_RATE_LIMIT_CODE
+                && System.currentTimeMillis() + API_RATE_LIMIT_SLEEP < forcedEnd
+                && RateLimitDeadline.allows(API_RATE_LIMIT_SLEEP)) {
             release(httpMethod);
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
             /*
                 TODO: When bitbucket starts supporting rate limit expiration time, remove 5 sec wait and put code
-                      to wait till expiration time is over. It should also fix the wait for ever loop.
+                      to wait till expiration time is over.
              */
             LOGGER.fine("Bitbucket Cloud API rate limit reached, sleeping for 5 sec then retry...");
-            Thread.sleep(5000);
+            Thread.sleep(API_RATE_LIMIT_SLEEP);
             response = client.execute(host, httpMethod, requestContext);
         }
         return response;
@@ -913,6 +1171,15 @@ public class BitbucketCloudApiClient implements BitbucketApi {
      */
     private InputStream getRequestAsInputStream(String path) throws IOException, InterruptedException {
         HttpGet httpget = new HttpGet(path);
+        CloseableHttpResponse response = getRequestResponse(path, httpget);
+        return new ClosingConnectionInputStream(response, httpget, connectionManager);
+    }
+
+    /**
+     * Executes the GET request and checks its status, a {@code 304 Not Modified} is considered successful.
+     * Caller's responsible to close the response.
+     */
+    private CloseableHttpResponse getRequestResponse(String path, HttpGet httpget) throws IOException, InterruptedException {
         HttpHost host = null;
 
         // Extract host from URL, if present
@@ -935,7 +1202,8 @@ public class BitbucketCloudApiClient implements BitbucketApi {
                 response.close();
                 throw new FileNotFoundException("URL: " + path);
             }
-            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK
+                    && response.getStatusLine().getStatusCode() != HttpStatus.SC_NOT_MODIFIED) {
                 String content = IOUtils.toString(response.getEntity().getContent());
                 int statusCode = response.getStatusLine().getStatusCode();
                 String status = response.getStatusLine().getReasonPhrase();
@@ -944,7 +1212,7 @@ public class BitbucketCloudApiClient implements BitbucketApi {
                 throw new BitbucketRequestException(statusCode,
                         "HTTP request error. Status: " + statusCode + ": " + status + ".\n" + content);
             }
-            return new ClosingConnectionInputStream(response, httpget, connectionManager);
+            return response;
         } catch (BitbucketRequestException | FileNotFoundException e) {
             throw e;
         } catch (IOException e) {
@@ -953,11 +1221,104 @@ public class BitbucketCloudApiClient implements BitbucketApi {
     }
 
     private String getRequest(String path) throws IOException, InterruptedException {
-        try (InputStream inputStream = getRequestAsInputStream(path)){
-            return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        return getRequest(path, IOUtils::toString);
+    }
+
+    /**
+     * Performs the GET request and hands the body of the successful response to the reader. The body is streamed
+     * unless the response carries validators worth caching, in which case it is buffered into
+     * {@link #validatedResponses} first.
+     */
+    private <T> T getRequest(String path, ContentReader<T> reader) throws IOException, InterruptedException {
+        HttpGet httpget = new HttpGet(path);
+        String cacheKey = ConditionalRequestCache.key(path, authenticator);
+        ConditionalRequestCache.Entry cached = validatedResponses.prepare(cacheKey, httpget);
+        CloseableHttpResponse response = getRequestResponse(path, httpget);
+        if (cached != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            try {
+                EntityUtils.consume(response.getEntity());
+                response.close();
+            } finally {
+                release(httpget);
+            }
+            return reader.read(new StringReader(validatedResponses.replay(cached)));
+        }
+        try (InputStream inputStream = new ClosingConnectionInputStream(response, httpget, connectionManager)) {
+            if (validatedResponses.accepts(response)) {
+                String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+                validatedResponses.store(cacheKey, response, content);
+                return reader.read(new StringReader(content));
+            }
+            validatedResponses.forget(cacheKey);
+            return reader.read(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
         }
     }
 
+    /**
+     * Reads one page of the given URL, handing its values to the consumer while they are parsed.
+     *
+     * @param url the page URL
+     * @param pageType the page type
+     * @param valueType the type of the page values
+     * @param consumer receives the values of the page
+     * @return the page, with its paging properties but without values
+     */
+    private <P, V> P getPage(String url, JavaType pageType, Class<V> valueType, Consumer<? super V> consumer) throws IOException, InterruptedException {
+        JavaType type = JsonParser.mapper.constructType(valueType);
+        return getRequest(url, content -> {
+            try {
+                return JsonParser.toJavaPage(content, pageType, type, consumer);
+            } catch (IOException e) {
+                throw new IOException("I/O error when parsing response from URL: " + url, e);
+            }
+        });
+    }
+
+    /**
+     * Pages through the listing only as far as the returned iterable is iterated, see {@link PagedIterable}.
+     *
+     * @param url the first page URL
+     * @param nextUrl gives the URL of the page following the given one, {@code null} on the last page
+     * @param setup prepares the values of each page before they are handed out
+     */
+    private <P, V> PagedIterable<V> getPagedResources(String url, JavaType pageType, Class<V> valueType,
+                                                    Function<P, String> nextUrl, PageSetup<V> setup) {
+        return new PagedIterable<>(new PagedIterable.Pages<V>() {
+            private String pageUrl = url;
+
+            @Override
+            public List<V> next() throws IOException, InterruptedException {
+                if (pageUrl == null) {
+                    return null;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                List<V> values = new ArrayList<>();
+                P page = getPage(pageUrl, pageType, valueType, values::add);
+                pageUrl = nextUrl.apply(page);
+                setup.accept(values);
+                return values;
+            }
+        });
+    }
+
+    /**
+     * Prepares the values of a page.
+     */
+    @FunctionalInterface
+    private interface PageSetup<V> {
+        void accept(List<V> values) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Consumes the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface ContentReader<T> {
+        T read(Reader content) throws IOException;
+    }
+
     private BufferedImage getImageRequest(String path) throws IOException, InterruptedException {
         try (InputStream inputStream = getRequestAsInputStream(path)) {
             int length = MAX_AVATAR_LENGTH;
@@ -1067,57 +1428,47 @@ public class BitbucketCloudApiClient implements BitbucketApi {
         return doRequest(httppost);
     }
 
-    private List<BitbucketCloudBranch> getAllBranches(String response) throws IOException, InterruptedException {
-        List<BitbucketCloudBranch> branches = new ArrayList<>();
-        BitbucketCloudPage<BitbucketCloudBranch> page = JsonParser.mapper.readValue(response,
-                new TypeReference<BitbucketCloudPage<BitbucketCloudBranch>>(){});
-        branches.addAll(page.getValues());
-        while (!page.isLastPage()){
-            response = getRequest(page.getNext());
-            page = JsonParser.mapper.readValue(response,
-                    new TypeReference<BitbucketCloudPage<BitbucketCloudBranch>>(){});
-            branches.addAll(page.getValues());
-        }
-
-        // Filter the inactive branches out
-        List<BitbucketCloudBranch> activeBranches = new ArrayList<>();
-        for (BitbucketCloudBranch branch: branches) {
-            if (branch.isActive()) {
-                activeBranches.add(branch);
-            }
-        }
-
-        return activeBranches;
-    }
-
     private BitbucketCloudBranch getSingleBranch(String response) throws IOException {
         return JsonParser.mapper.readValue(response, new TypeReference<BitbucketCloudBranch>(){});
     }
 
     @Override
     public Iterable<SCMFile> getDirectoryContent(final BitbucketSCMFile parent) throws IOException, InterruptedException {
-        String url = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/src{/branchOrHash,path}")
+        return getDirectoryContent(parent, false);
+    }
+
+    @Override
+    public Iterable<SCMFile> getSmallDirectoryContent(BitbucketSCMFile parent) throws IOException, InterruptedException {
+        return getDirectoryContent(parent, true);
+    }
+
+    /**
+     * Lists the children of the given folder.
+     *
+     * @param firstPageOnly whether to give up rather than request a second page.
+     * @return the children or {@code null} if there are more than a page of them and only the first was requested.
+     */
+    @CheckForNull
+    private List<SCMFile> getDirectoryContent(BitbucketSCMFile parent, boolean firstPageOnly)
+            throws IOException, InterruptedException {
+        UriTemplate template = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/src{/branchOrHash,path}{?pagelen,fields}")
                 .set("owner", owner)
                 .set("repo", repositoryName)
                 .set("branchOrHash", parent.getHash())
                 .set("path", parent.getPath())
-                .expand();
+                .set("pagelen", MAX_PAGE_LENGTH);
+        if (!FULL_RESPONSES) {
+            template.set("fields", SOURCE_FIELDS);
+        }
+        String url = template.expand();
         List<SCMFile> result = new ArrayList<>();
-        String response = getRequest(url);
-        BitbucketCloudPage<BitbucketRepositorySource> page = JsonParser.mapper.readValue(response,
-                new TypeReference<BitbucketCloudPage<BitbucketRepositorySource>>(){});
-
-        for(BitbucketRepositorySource source:page.getValues()){
-            result.add(source.toBitbucketScmFile(parent));
+        Consumer<BitbucketRepositorySource> collector = source -> result.add(source.toBitbucketScmFile(parent));
+        BitbucketCloudPage<BitbucketRepositorySource> page = getPage(url, SOURCE_PAGE_TYPE, BitbucketRepositorySource.class, collector);
+        if (firstPageOnly && !page.isLastPage()) {
+            return null;
         }
-
         while (!page.isLastPage()){
-            response = getRequest(page.getNext());
-            page = JsonParser.mapper.readValue(response,
-                    new TypeReference<BitbucketCloudPage<BitbucketRepositorySource>>(){});
-            for(BitbucketRepositorySource source:page.getValues()){
-                result.add(source.toBitbucketScmFile(parent));
-            }
+            page = getPage(page.getNext(), SOURCE_PAGE_TYPE, BitbucketRepositorySource.class, collector);
         }
         return result;
     }
@@ -18,6 +18,11 @@ public class BitbucketCloudApiFactory extends BitbucketApiFactory {
         return serverUrl == null || BitbucketCloudEndpoint.SERVER_URL.equals(serverUrl);
     }
 
+    @Override
+    protected boolean isPooled() {
+        return true;
+    }
+
     @NonNull
     @Override
     protected BitbucketApi create(@Nullable String serverUrl, @Nullable BitbucketAuthenticator authenticator,
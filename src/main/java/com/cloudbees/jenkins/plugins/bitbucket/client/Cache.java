@@ -25,53 +25,121 @@ package com.cloudbees.jenkins.plugins.bitbucket.client;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * A size bounded cache with time based expiration.
+ * <p>
+ * Values are loaded outside of any cache wide lock, so a slow load for one key never blocks lookups of other keys.
+ * Concurrent loads of the same key are coalesced: the first caller runs the loader and the others wait for its
+ * outcome, including its failure. Failed loads are not cached.
+ * <p>
+ * Entries expire a fixed time after they were loaded, or after they were last read if the cache expires after
+ * access. A cache told about removals sweeps its expired entries on every load, so that their values are handed to
+ * the removal listener soon after they expire rather than whenever their key is asked for again.
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
 public class Cache<K, V> {
 
     private static final int MAX_ENTRIES_DEFAULT = 100;
 
     private final Map<K, Entry<V>> entries;
 
-    private long expireAfterNanos;
+    private final int maxEntries;
+
+    private volatile long expireAfterNanos;
+
+    private final boolean expireAfterAccess;
+
+    private final Consumer<? super V> removalListener;
 
     public Cache(final int duration, final TimeUnit unit) {
         this(duration, unit, MAX_ENTRIES_DEFAULT);
     }
 
     public Cache(final int duration, final TimeUnit unit, final int maxEntries) {
+        this(duration, unit, maxEntries, false, null);
+    }
+
+    /**
+     * @param duration how long the entries are kept.
+     * @param unit the unit of the duration.
+     * @param maxEntries the maximum number of entries kept.
+     * @param expireAfterAccess {@code true} to count the duration from the last read of an entry rather than from
+     *                          its load.
+     * @param removalListener told about the values of the entries removed because they expired, did not fit or were
+     *                        evicted, or {@code null}.
+     */
+    public Cache(final int duration, final TimeUnit unit, final int maxEntries, final boolean expireAfterAccess,
+                 final Consumer<? super V> removalListener) {
         this.expireAfterNanos = unit.toNanos(duration);
-        this.entries = new LimitedMap<>(maxEntries);
+        this.maxEntries = maxEntries;
+        this.expireAfterAccess = expireAfterAccess;
+        this.removalListener = removalListener;
+        this.entries = new ConcurrentHashMap<>();
     }
 
-    public synchronized V get(final K key, final Callable<V> callable) throws ExecutionException {
-        if (isExpired(key)) {
-            doRemove(key);
+    public V get(final K key, final Callable<V> callable) throws ExecutionException {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isExpired(expireAfterNanos)) {
+            remove(key, entry);
+            entry = null;
+        } else if (entry != null && expireAfterAccess && entry.isDone()) {
+            entry.touch();
         }
 
-        if (entries.containsKey(key)) {
-            return entries.get(key).value;
+        if (entry == null) {
+            final Entry<V> loading = new Entry<>();
+            entry = entries.putIfAbsent(key, loading);
+            if (entry == null) {
+                return load(key, loading, callable);
+            }
         }
 
-        V result;
+        try {
+            return entry.value.get();
+        } catch (final ExecutionException e) {
+            throw new ExecutionException("Cannot load value for key: " + key, e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException("Interrupted while waiting for value of key: " + key, e);
+        }
+    }
+
+    private V load(final K key, final Entry<V> loading, final Callable<V> callable) throws ExecutionException {
+        final V result;
         try {
             result = callable.call();
         } catch (final Exception e) {
+            entries.remove(key, loading);
+            loading.fail(e);
             throw new ExecutionException("Cannot load value for key: " + key, e);
+        } catch (final Error e) {
+            // do not leave the waiting callers blocked on an entry nobody completes
+            entries.remove(key, loading);
+            loading.fail(e);
+            throw e;
         }
-
-        return doPut(key, result);
+        loading.complete(result);
+        trim();
+        return result;
     }
 
     public void evictAll() {
-        entries.clear();
+        for (final Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+            remove(e.getKey(), e.getValue());
+        }
     }
 
     public int size() {
@@ -84,53 +152,81 @@ public class Cache<K, V> {
 
     public Stat stats() {
         final List<Long> durations = new ArrayList<>();
-        if (entries.size() > 0) {
-            for (final Entry<V> e : entries.values()) {
-                durations.add(System.nanoTime() - e.nanos);
+        final long now = System.nanoTime();
+        for (final Entry<V> e : entries.values()) {
+            if (e.isDone()) {
+                durations.add(now - e.nanos);
             }
-            Collections.sort(durations);
-        } else {
+        }
+        if (durations.isEmpty()) {
             durations.add(0L);
             durations.add(0L);
+        } else {
+            Collections.sort(durations);
         }
         return new Stat(entries.size(), durations.get(0), durations.get(durations.size() - 1));
     }
 
-    private boolean isExpired(final K key) {
-        final Entry<V> entry = entries.get(key);
-        return entry != null && System.nanoTime() - entry.nanos > expireAfterNanos;
+    /**
+     * Evicts the oldest loaded entries until the cache fits in its maximum size again.
+     */
+    private void trim() {
+        if (removalListener != null) {
+            for (final Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+                if (e.getValue().isExpired(expireAfterNanos)) {
+                    remove(e.getKey(), e.getValue());
+                }
+            }
+        }
+        while (entries.size() > maxEntries) {
+            Map.Entry<K, Entry<V>> eldest = null;
+            for (final Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+                if (e.getValue().isDone() && (eldest == null || e.getValue().nanos - eldest.getValue().nanos < 0)) {
+                    eldest = e;
+                }
+            }
+            if (eldest == null) {
+                // only loads in progress, they will trim once done
+                return;
+            }
+            remove(eldest.getKey(), eldest.getValue());
+        }
     }
 
-    private void doRemove(final K key) {
-        entries.remove(key);
+    /**
+     * Removes the entry if it is still the one of its key and tells the removal listener about its value.
+     */
+    private void remove(final K key, final Entry<V> entry) {
+        if (entries.remove(key, entry) && removalListener != null && entry.isDone()
+                && !entry.value.isCompletedExceptionally()) {
+            removalListener.accept(entry.value.getNow(null));
+        }
     }
 
-    private V doPut(final K key, final V value) {
-        entries.put(key, new Entry<>(value));
-        return value;
-    }
+    private static class Entry<V> {
+        private final CompletableFuture<V> value = new CompletableFuture<>();
 
-    private static class LimitedMap<K, V> extends LinkedHashMap<K, V> {
-        private final int maxEntries;
+        private volatile long nanos = System.nanoTime();
 
-        public LimitedMap(final int maxEntries) {
-            this.maxEntries = maxEntries;
+        private void complete(final V result) {
+            nanos = System.nanoTime();
+            value.complete(result);
         }
 
-        @Override
-        protected boolean removeEldestEntry(final java.util.Map.Entry<K, V> eldest) {
-            return size() > maxEntries;
+        private void touch() {
+            nanos = System.nanoTime();
         }
-    }
 
-    private static class Entry<V> {
-        private final V value;
+        private void fail(final Throwable e) {
+            value.completeExceptionally(e);
+        }
 
-        private final long nanos;
+        private boolean isDone() {
+            return value.isDone();
+        }
 
-        public Entry(final V value) {
-            this.value = value;
-            nanos = System.nanoTime();
+        private boolean isExpired(final long expireAfterNanos) {
+            return isDone() && System.nanoTime() - nanos > expireAfterNanos;
         }
     }
 
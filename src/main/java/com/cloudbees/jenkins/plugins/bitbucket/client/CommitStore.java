@@ -0,0 +1,344 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the responses describing commits on disk, so that they survive restarts. A commit addressed by its full hash
+ * never changes, so entries are never revalidated.
+ * <p>
+ * Entries are appended to a log file and located through an in-memory index of their offsets which is rebuilt by
+ * reading the log once when the store is first used. A record torn by a crash is dropped. Once the log reaches the
+ * configured size it is started over.
+ */
+@Restricted(NoExternalUse.class)
+public final class CommitStore {
+
+    private static final Logger LOGGER = Logger.getLogger(CommitStore.class.getName());
+
+    /**
+     * Maximum size in bytes of the log, {@code 0} disables the store.
+     */
+    private static final long MAX_SIZE_DEFAULT =
+            Math.max(0, Long.getLong(CommitStore.class.getName() + ".maxSize", 256L * 1024 * 1024));
+
+    private static final Pattern FULL_HASH = Pattern.compile("[0-9a-fA-F]{40}|[0-9a-fA-F]{64}");
+
+    /**
+     * Size of the header of a record: the lengths of the key and of the value.
+     */
+    private static final int HEADER = 2 * Integer.BYTES;
+
+    @CheckForNull
+    private final File file;
+
+    private final long maxSize;
+
+    /**
+     * The offset of the record of each key.
+     */
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @CheckForNull
+    private volatile FileChannel channel;
+
+    private boolean opened;
+
+    private long size;
+
+    public CommitStore(@CheckForNull File file, long maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the store shared by the clients, kept under {@code JENKINS_HOME}.
+     *
+     * @return the shared store, disabled when not running in Jenkins.
+     */
+    @NonNull
+    public static CommitStore get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Tells whether the given reference is a full commit hash, the only references whose commit can be stored.
+     *
+     * @param hash the commit reference.
+     * @return {@code true} if it is a full SHA-1 or SHA-256 hash.
+     */
+    public static boolean isFullHash(@CheckForNull String hash) {
+        return hash != null && FULL_HASH.matcher(hash).matches();
+    }
+
+    /**
+     * Looks up a stored response.
+     *
+     * @param key the key, made of the kind of response and the full commit hash.
+     * @return the stored response or {@code null} if there is none.
+     */
+    @CheckForNull
+    public String get(@NonNull String key) {
+        FileChannel channel = open();
+        Long position = index.get(key);
+        if (channel == null || position == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = read(channel, position, HEADER);
+            int valueLength = header.getInt(Integer.BYTES);
+            // the log may have been started over since the position was looked up
+            if (header.getInt(0) == keyBytes.length && valueLength >= 0) {
+                ByteBuffer record = read(channel, position + HEADER, keyBytes.length + valueLength);
+                if (ByteBuffer.wrap(keyBytes).equals(record.slice().limit(keyBytes.length))) {
+                    hits.incrementAndGet();
+                    return new String(record.array(), keyBytes.length, valueLength, StandardCharsets.UTF_8);
+                }
+            }
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            // the log was started over meanwhile
+            LOGGER.log(Level.FINE, "Could not read the stored commit " + key, e);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response, unless there is one already for the key.
+     *
+     * @param key the key, made of the kind of response and the full commit hash.
+     * @param value the response.
+     */
+    public synchronized void put(@NonNull String key, @NonNull String value) {
+        FileChannel channel = open();
+        if (channel == null || index.containsKey(key)) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER + keyBytes.length + valueBytes.length);
+        record.putInt(keyBytes.length).putInt(valueBytes.length).put(keyBytes).put(valueBytes).flip();
+        try {
+            if (size + record.remaining() > maxSize) {
+                if (record.remaining() > maxSize) {
+                    return;
+                }
+                LOGGER.log(Level.FINE, "Starting over {0} after reaching {1} bytes", new Object[]{file, size});
+                index.clear();
+                channel.truncate(0);
+                size = 0;
+            }
+            long position = size;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            index.put(key, size);
+            size = position;
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * Forgets the stored responses whose key starts with the given prefix, compacting the log over them.
+     *
+     * @param prefix the prefix of the keys to forget, such as the kind of server they come from.
+     */
+    public synchronized void clear(@NonNull String prefix) {
+        FileChannel channel = open();
+        if (channel == null) {
+            return;
+        }
+        try {
+            long read = 0;
+            long written = 0;
+            while (read < size) {
+                ByteBuffer header = read(channel, read, HEADER);
+                int keyLength = header.getInt(0);
+                int length = HEADER + keyLength + header.getInt(Integer.BYTES);
+                ByteBuffer record = read(channel, read, length);
+                String key = new String(record.array(), HEADER, keyLength, StandardCharsets.UTF_8);
+                // readers check the key of what they read, hide the record while it moves
+                index.remove(key);
+                if (!key.startsWith(prefix)) {
+                    long position = written;
+                    while (record.hasRemaining()) {
+                        position += channel.write(record, position);
+                    }
+                    index.put(key, written);
+                    written = position;
+                }
+                read += length;
+            }
+            channel.truncate(written);
+            size = written;
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public String toString() {
+        return index.size() + " entries (" + size + " bytes), " + hits.get() + " hits, " + misses.get() + " misses.";
+    }
+
+    @CheckForNull
+    private FileChannel open() {
+        FileChannel channel = this.channel;
+        if (channel != null) {
+            return channel;
+        }
+        synchronized (this) {
+            if (!opened) {
+                opened = true;
+                if (file != null && maxSize > 0) {
+                    try {
+                        this.channel = load(file);
+                    } catch (IOException e) {
+                        disable(e);
+                    }
+                }
+            }
+            return this.channel;
+        }
+    }
+
+    /**
+     * Rebuilds the index from the log and drops a torn record at its end.
+     */
+    @NonNull
+    private FileChannel load(@NonNull File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = channel.size();
+        long position = 0;
+        try (InputStream stream = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (position + HEADER <= length) {
+                int keyLength = in.readInt();
+                int valueLength = in.readInt();
+                if (keyLength <= 0 || valueLength < 0
+                        || position + HEADER + keyLength + valueLength > length) {
+                    break;
+                }
+                byte[] key = new byte[keyLength];
+                in.readFully(key);
+                skipFully(in, valueLength);
+                index.put(new String(key, StandardCharsets.UTF_8), position);
+                position += HEADER + keyLength + valueLength;
+            }
+        } catch (EOFException e) {
+            // torn record, dropped below
+        }
+        if (position < length) {
+            LOGGER.log(Level.INFO, "Dropping {0} bytes of incomplete records from {1}",
+                    new Object[]{length - position, file});
+            channel.truncate(position);
+        }
+        size = position;
+        return channel;
+    }
+
+    private void disable(IOException e) {
+        LOGGER.log(Level.WARNING, "Could not use " + file + ", commits will not be kept on disk", e);
+        index.clear();
+        FileChannel channel = this.channel;
+        this.channel = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException x) {
+                e.addSuppressed(x);
+            }
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            count -= skipped;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static class Holder {
+        private static final CommitStore INSTANCE = create();
+
+        private static CommitStore create() {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            return new CommitStore(jenkins == null
+                    ? null
+                    : new File(jenkins.getRootDir(), "caches/cloudbees-bitbucket-branch-source/commits.log"),
+                    MAX_SIZE_DEFAULT);
+        }
+    }
+}
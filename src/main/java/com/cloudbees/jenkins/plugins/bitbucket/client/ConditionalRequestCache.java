@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Remembers the HTTP validators ({@code ETag} and {@code Last-Modified}) and the body of successful GET responses,
+ * so that the same URL can be revalidated with a conditional request and the body replayed on
+ * {@code 304 Not Modified}.
+ * <p>
+ * Entries are keyed by URL and credentials, the least recently used ones are evicted once the cached bodies exceed
+ * the configured size.
+ */
+@Restricted(NoExternalUse.class)
+public class ConditionalRequestCache {
+
+    /**
+     * Maximum number of characters of response bodies kept in a single cache, {@code 0} disables the cache.
+     */
+    private static final long MAX_CHARS_DEFAULT =
+            Math.max(0, Long.getLong(ConditionalRequestCache.class.getName() + ".maxChars", 8L * 1024 * 1024));
+
+    private final long maxChars;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long chars;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ConditionalRequestCache() {
+        this(MAX_CHARS_DEFAULT);
+    }
+
+    public ConditionalRequestCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Builds the cache key for the given URL as seen with the given credentials.
+     *
+     * @param url the absolute request URL.
+     * @param authenticator the (optional) authenticator used for the request.
+     * @return the cache key.
+     */
+    @NonNull
+    public static String key(@NonNull String url, @CheckForNull BitbucketAuthenticator authenticator) {
+        return url + "::" + (authenticator == null ? "<anonymous>" : authenticator.getClass().getName() + ":" + authenticator.getFingerprint());
+    }
+
+    /**
+     * Adds the conditional headers to the request if there is a cached response for the key.
+     *
+     * @param key the cache key.
+     * @param request the GET request about to be sent.
+     * @return the cached entry to replay on {@code 304 Not Modified}, or {@code null} if the request is unconditional.
+     */
+    @CheckForNull
+    public Entry prepare(@NonNull String key, @NonNull HttpRequest request) {
+        if (maxChars <= 0) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            if (entry.etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, entry.etag);
+            }
+            if (entry.lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Records that the server confirmed the cached entry is still valid.
+     *
+     * @param entry the entry returned by {@link #prepare(String, HttpRequest)}.
+     * @return the cached body.
+     */
+    @NonNull
+    public String replay(@NonNull Entry entry) {
+        hits.incrementAndGet();
+        return entry.body;
+    }
+
+    /**
+     * Stores the body of a successful response if it carries validators, otherwise forgets any previous entry.
+     *
+     * @param key the cache key.
+     * @param response the {@code 200 OK} response.
+     * @param body the response body.
+     */
+    public void store(@NonNull String key, @NonNull HttpResponse response, @NonNull String body) {
+        if (maxChars <= 0) {
+            return;
+        }
+        misses.incrementAndGet();
+        String etag = value(response.getFirstHeader(HttpHeaders.ETAG));
+        String lastModified = value(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+        synchronized (entries) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                chars -= previous.body.length();
+            }
+            if ((etag == null && lastModified == null) || body.length() > maxChars) {
+                return;
+            }
+            entries.put(key, new Entry(etag, lastModified, body));
+            chars += body.length();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (chars > maxChars && eldest.hasNext()) {
+                chars -= eldest.next().getValue().body.length();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Tells whether {@link #store(String, HttpResponse, String)} would keep the body of the response. Callers can
+     * stream the body of responses that are not accepted instead of buffering them.
+     *
+     * @param response the {@code 200 OK} response.
+     * @return {@code true} if the response carries validators and the cache is enabled.
+     */
+    public boolean accepts(@NonNull HttpResponse response) {
+        return maxChars > 0
+                && (response.getFirstHeader(HttpHeaders.ETAG) != null
+                    || response.getFirstHeader(HttpHeaders.LAST_MODIFIED) != null);
+    }
+
+    /**
+     * Forgets any previous entry for a response whose body was not stored.
+     *
+     * @param key the cache key.
+     */
+    public void forget(@NonNull String key) {
+        if (maxChars <= 0) {
+            return;
+        }
+        misses.incrementAndGet();
+        synchronized (entries) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                chars -= previous.body.length();
+            }
+        }
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+            chars = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (entries) {
+            return entries.size() + " entries (" + chars + " chars), " + hits.get() + " not modified, "
+                    + misses.get() + " downloaded.";
+        }
+    }
+
+    @CheckForNull
+    private static String value(@CheckForNull Header header) {
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+        @CheckForNull
+        private final String etag;
+        @CheckForNull
+        private final String lastModified;
+        @NonNull
+        private final String body;
+
+        private Entry(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * An iterable over a paginated listing that requests each page only when an iteration reaches it, so that a caller
+ * which stops iterating early does not download the remaining pages. The values already fetched are remembered, a
+ * new iteration only requests the pages that no previous iteration reached.
+ * <p>
+ * As iterators cannot throw checked exceptions, a page that cannot be fetched is reported by a
+ * {@link PageRequestException}, the {@link BitbucketException} that API callers see.
+ *
+ * @param <V> the type of the listed values.
+ */
+@Restricted(NoExternalUse.class)
+public final class PagedIterable<V> implements Iterable<V> {
+
+    /**
+     * Walks the pages of the listing.
+     *
+     * @param <V> the type of the listed values.
+     */
+    @FunctionalInterface
+    public interface Pages<V> {
+        /**
+         * Requests the next page.
+         *
+         * @return the values of the next page or {@code null} if the previous page was the last one.
+         * @throws IOException if there was a network communications error.
+         * @throws InterruptedException if interrupted while waiting on remote communications.
+         */
+        @CheckForNull
+        List<? extends V> next() throws IOException, InterruptedException;
+    }
+
+    private final Pages<V> pages;
+
+    private final List<V> values = new ArrayList<>();
+
+    private boolean exhausted;
+
+    /**
+     * Constructor.
+     *
+     * @param pages walks the pages of the listing, it is called at most once per page.
+     */
+    public PagedIterable(@NonNull Pages<V> pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Fetches all the pages of the given iterable.
+     *
+     * @param iterable the values to collect.
+     * @param <V> the type of the listed values.
+     * @return the collected values.
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @NonNull
+    public static <V> List<V> toList(@NonNull Iterable<V> iterable) throws IOException, InterruptedException {
+        List<V> values = new ArrayList<>();
+        try {
+            for (V value : iterable) {
+                values.add(value);
+            }
+        } catch (PageRequestException e) {
+            e.unwrap();
+        }
+        return values;
+    }
+
+    /**
+     * Requests pages until the value at the given index is fetched or the listing is over.
+     *
+     * @return whether there is a value at the given index.
+     */
+    private synchronized boolean fetch(int index) {
+        while (values.size() <= index && !exhausted) {
+            List<? extends V> page;
+            try {
+                page = pages.next();
+            } catch (IOException | InterruptedException e) {
+                throw new PageRequestException(e);
+            }
+            if (page == null) {
+                exhausted = true;
+            } else {
+                values.addAll(page);
+            }
+        }
+        return values.size() > index;
+    }
+
+    private synchronized V get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return fetch(index);
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * Thrown by the iterator of a {@link PagedIterable} when a page cannot be fetched.
+     */
+    public static class PageRequestException extends BitbucketException {
+        private static final long serialVersionUID = 1L;
+
+        public PageRequestException(Throwable cause) {
+            super(cause.toString(), cause);
+        }
+
+        /**
+         * Rethrows the cause.
+         *
+         * @throws IOException if there was a network communications error.
+         * @throws InterruptedException if interrupted while waiting on remote communications.
+         */
+        public void unwrap() throws IOException, InterruptedException {
+            Throwable cause = getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw this;
+        }
+    }
+}
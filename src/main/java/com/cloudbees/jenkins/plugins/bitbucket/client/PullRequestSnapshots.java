@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestValue;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Remembers, per repository and listing query, the open pull requests of the last listing together with the most
+ * recent {@code updated_on} among them, so that the following listings only ask for the pull requests updated since.
+ * <p>
+ * Snapshots expire after a while, so that a full listing regularly drops the pull requests an update listing can not
+ * report, such as deleted ones or ones moved to a destination branch outside of the query.
+ */
+class PullRequestSnapshots {
+
+    /**
+     * How long a snapshot is updated before a full listing replaces it, {@code 0} to list every pull request on every
+     * listing.
+     */
+    private static final int FULL_SWEEP_MINUTES_DEFAULT =
+            Math.max(0, Integer.getInteger(PullRequestSnapshots.class.getName() + ".fullSweepMinutes", 60));
+
+    /**
+     * The maximum number of listings remembered.
+     */
+    private static final int MAX_ENTRIES_DEFAULT =
+            Math.max(1, Integer.getInteger(PullRequestSnapshots.class.getName() + ".maxEntries", 1000));
+
+    private final long fullSweepNanos;
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Snapshot> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    PullRequestSnapshots() {
+        this(FULL_SWEEP_MINUTES_DEFAULT, TimeUnit.MINUTES, MAX_ENTRIES_DEFAULT);
+    }
+
+    PullRequestSnapshots(long fullSweep, TimeUnit unit, int maxEntries) {
+        this.fullSweepNanos = unit.toNanos(fullSweep);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Tells whether listings may be updated from a snapshot at all.
+     *
+     * @return {@code false} if every listing lists every pull request.
+     */
+    boolean isEnabled() {
+        return fullSweepNanos > 0;
+    }
+
+    /**
+     * Looks up the snapshot of a listing.
+     *
+     * @param key the listing key.
+     * @return the snapshot if it can still be updated, {@code null} if the pull requests must all be listed again.
+     */
+    @CheckForNull
+    Snapshot get(@NonNull String key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        synchronized (entries) {
+            Snapshot snapshot = entries.get(key);
+            if (snapshot != null && System.nanoTime() - snapshot.sweepNanos > fullSweepNanos) {
+                entries.remove(key);
+                snapshot = null;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Records the snapshot of a listing.
+     *
+     * @param key the listing key.
+     * @param snapshot the snapshot.
+     */
+    void put(@NonNull String key, @NonNull Snapshot snapshot) {
+        if (!isEnabled() || snapshot.highWaterMark == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, snapshot);
+            while (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * The open pull requests of a listing.
+     */
+    static final class Snapshot {
+        private final List<BitbucketPullRequestValue> pullRequests;
+
+        private final String highWaterMark;
+
+        private final long sweepNanos;
+
+        private Snapshot(List<BitbucketPullRequestValue> pullRequests, String highWaterMark, long sweepNanos) {
+            this.pullRequests = Collections.unmodifiableList(pullRequests);
+            this.highWaterMark = highWaterMark;
+            this.sweepNanos = sweepNanos;
+        }
+
+        /**
+         * Builds the snapshot of a full listing.
+         *
+         * @param pullRequests the open pull requests.
+         * @return the snapshot.
+         */
+        @NonNull
+        static Snapshot of(@NonNull List<BitbucketPullRequestValue> pullRequests) {
+            return new Snapshot(new ArrayList<>(pullRequests), latest(null, pullRequests), System.nanoTime());
+        }
+
+        /**
+         * Merges the pull requests updated since this snapshot into a new snapshot, which keeps the time of the last
+         * full listing.
+         *
+         * @param updates the updated pull requests, open or not.
+         * @param listed tells which of the updated pull requests a full listing would list, the others are dropped.
+         * @return the merged snapshot.
+         */
+        @NonNull
+        Snapshot update(@NonNull List<BitbucketPullRequestValue> updates,
+                        @NonNull Predicate<BitbucketPullRequestValue> listed) {
+            Map<String, BitbucketPullRequestValue> merged = new LinkedHashMap<>();
+            for (BitbucketPullRequestValue pullRequest : pullRequests) {
+                merged.put(pullRequest.getId(), pullRequest);
+            }
+            for (BitbucketPullRequestValue update : updates) {
+                if (listed.test(update)) {
+                    merged.put(update.getId(), update);
+                } else {
+                    merged.remove(update.getId());
+                }
+            }
+            return new Snapshot(new ArrayList<>(merged.values()), latest(highWaterMark, updates), sweepNanos);
+        }
+
+        @NonNull
+        List<BitbucketPullRequestValue> getPullRequests() {
+            return pullRequests;
+        }
+
+        /**
+         * Returns the most recent update time seen, as formatted by Bitbucket.
+         *
+         * @return the high-water mark, {@code null} if no pull request had an update time.
+         */
+        @CheckForNull
+        String getHighWaterMark() {
+            return highWaterMark;
+        }
+
+        @CheckForNull
+        private static String latest(@CheckForNull String latest, @NonNull List<BitbucketPullRequestValue> pullRequests) {
+            OffsetDateTime latestTime = parse(latest);
+            for (BitbucketPullRequestValue pullRequest : pullRequests) {
+                OffsetDateTime time = parse(pullRequest.getUpdatedOn());
+                if (time != null && (latestTime == null || time.isAfter(latestTime))) {
+                    latest = pullRequest.getUpdatedOn();
+                    latestTime = time;
+                }
+            }
+            return latest;
+        }
+
+        @CheckForNull
+        private static OffsetDateTime parse(@CheckForNull String time) {
+            try {
+                return time == null ? null : OffsetDateTime.parse(time);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
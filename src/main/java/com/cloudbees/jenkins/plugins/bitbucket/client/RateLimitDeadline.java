@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Bounds how long the requests of the current thread wait for a rate limit to be lifted, so that background work
+ * such as posting build statuses gives up in time rather than keeping its threads asleep while Bitbucket throttles
+ * it. Without a deadline the clients wait as long as they always did.
+ */
+@Restricted(NoExternalUse.class)
+public final class RateLimitDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RateLimitDeadline() {
+    }
+
+    /**
+     * Sets the deadline of the requests of the current thread.
+     *
+     * @param deadline the time in milliseconds past which a request stops waiting for a rate limit.
+     */
+    public static void set(long deadline) {
+        DEADLINE.set(deadline);
+    }
+
+    /**
+     * Removes the deadline of the requests of the current thread.
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Tells whether a request of the current thread may wait for a rate limit to be lifted.
+     *
+     * @param sleep how long the request would wait in milliseconds.
+     * @return {@code true} if the wait ends before the deadline, if any.
+     */
+    public static boolean allows(long sleep) {
+        Long deadline = DEADLINE.get();
+        return deadline == null || System.currentTimeMillis() + sleep < deadline;
+    }
+}
@@ -127,6 +127,22 @@ public class BitbucketCloudBranch implements BitbucketBranch {
         this.commitClosure = commitClosure;
     }
 
+    /**
+     * Returns a copy of the name and head of this branch, the details of the head commit that were not listed are
+     * resolved again through the closure of the copy.
+     *
+     * @return the copy.
+     */
+    @Restricted(NoExternalUse.class)
+    public BitbucketCloudBranch copy() {
+        BitbucketCloudBranch copy = new BitbucketCloudBranch(name, hash, callableInitialised ? 0L : dateInMillis);
+        if (!callableInitialised) {
+            copy.author = author;
+            copy.message = message;
+        }
+        return copy;
+    }
+
     private void initHeadCommitInfo() {
         if (callableInitialised || commitClosure == null) {
             return;
@@ -30,6 +30,8 @@ import com.fasterxml.jackson.databind.util.StdDateFormat;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.text.ParseException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 public class BitbucketCloudCommit implements BitbucketCommit {
 
@@ -102,4 +104,16 @@ public class BitbucketCloudCommit implements BitbucketCommit {
         this.author = author;
     }
 
+    /**
+     * Returns a copy of this commit.
+     *
+     * @return the copy.
+     */
+    @Restricted(NoExternalUse.class)
+    public BitbucketCloudCommit copy() {
+        BitbucketCloudCommit copy = new BitbucketCloudCommit(message, date, hash, null);
+        copy.author = author;
+        return copy;
+    }
+
 }
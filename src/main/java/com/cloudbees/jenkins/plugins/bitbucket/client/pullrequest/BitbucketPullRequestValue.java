@@ -29,12 +29,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 public class BitbucketPullRequestValue implements BitbucketPullRequest {
     private BitbucketPullRequestValueDestination destination;
     private BitbucketPullRequestValueRepository source;
     private String id;
     private String title;
+    private String state;
+
+    @JsonProperty("updated_on")
+    private String updatedOn;
 
     private Links links;
 
@@ -99,6 +105,49 @@ public class BitbucketPullRequestValue implements BitbucketPullRequest {
         this.title = title;
     }
 
+    @Override
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns when the pull request was last updated, as formatted by Bitbucket.
+     *
+     * @return the last update time, {@code null} if not known.
+     */
+    public String getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(String updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    /**
+     * Returns a copy of this pull request whose source and destination can be set up and resolved without affecting
+     * this one.
+     *
+     * @return the copy.
+     */
+    @Restricted(NoExternalUse.class)
+    public BitbucketPullRequestValue copy() {
+        BitbucketPullRequestValue copy = new BitbucketPullRequestValue();
+        copy.destination = destination == null ? null : destination.copy();
+        copy.source = source == null ? null : source.copy();
+        copy.id = id;
+        copy.title = title;
+        copy.state = state;
+        copy.updatedOn = updatedOn;
+        copy.links = links;
+        copy.author = author;
+        copy.reviewers = reviewers;
+        return copy;
+    }
+
     public void setLinks(Links link) {
         this.links = link;
     }
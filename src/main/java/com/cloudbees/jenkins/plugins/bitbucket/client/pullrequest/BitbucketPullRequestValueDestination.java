@@ -36,6 +36,8 @@ import com.fasterxml.jackson.databind.util.StdDateFormat;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Date;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 public class BitbucketPullRequestValueDestination implements BitbucketPullRequestDestination {
     private BitbucketCloudRepository repository;
@@ -97,4 +99,15 @@ public class BitbucketPullRequestValueDestination implements BitbucketPullReques
     public void setCommit(BitbucketCloudCommit commit) {
         this.commit = commit;
     }
+
+    /**
+     * Returns a copy of this destination whose branch and commit are copies too.
+     *
+     * @return the copy.
+     */
+    @Restricted(NoExternalUse.class)
+    public BitbucketPullRequestValueDestination copy() {
+        return new BitbucketPullRequestValueDestination(repository, branch == null ? null : branch.copy(),
+                commit == null ? null : commit.copy());
+    }
 }
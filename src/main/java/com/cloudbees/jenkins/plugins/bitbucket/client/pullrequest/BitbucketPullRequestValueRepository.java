@@ -33,6 +33,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.util.Date;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 public class BitbucketPullRequestValueRepository implements BitbucketPullRequestSource {
     private BitbucketCloudRepository repository;
@@ -95,4 +97,15 @@ public class BitbucketPullRequestValueRepository implements BitbucketPullRequest
     public void setCommit(BitbucketCloudCommit commit) {
         this.commit = commit;
     }
+
+    /**
+     * Returns a copy of this source whose branch and commit are copies too.
+     *
+     * @return the copy.
+     */
+    @Restricted(NoExternalUse.class)
+    public BitbucketPullRequestValueRepository copy() {
+        return new BitbucketPullRequestValueRepository(repository, branch == null ? null : branch.copy(),
+                commit == null ? null : commit.copy());
+    }
 }
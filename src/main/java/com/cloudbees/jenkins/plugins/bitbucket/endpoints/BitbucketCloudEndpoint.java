@@ -24,6 +24,8 @@
 package com.cloudbees.jenkins.plugins.bitbucket.endpoints;
 
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventCoalescer;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventQueue;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.damnhandy.uri.template.UriTemplate;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
@@ -156,6 +158,8 @@ public class BitbucketCloudEndpoint extends AbstractBitbucketEndpoint {
         public FormValidation doShowStats() {
             Jenkins.get().checkPermission(Jenkins.MANAGE);
             List<String> stats = BitbucketCloudApiClient.stats();
+            stats.add("Webhooks: " + HookEventQueue.get());
+            stats.add("Webhook events: " + HookEventCoalescer.get());
             StringBuilder builder = new StringBuilder();
             for (String stat : stats) {
                 builder.append(stat).append("<br>");
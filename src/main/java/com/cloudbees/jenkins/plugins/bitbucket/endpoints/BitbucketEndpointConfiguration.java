@@ -23,6 +23,7 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket.endpoints;
 
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApiFactory;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
@@ -183,6 +184,7 @@ public class BitbucketEndpointConfiguration extends GlobalConfiguration {
         }
         this.endpoints = eps;
         save();
+        BitbucketApiFactory.clearPool();
     }
 
     /**
@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import jenkins.model.Jenkins;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.SCMSourceOwners;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Tells which {@link SCMSourceOwner}s have a {@link BitbucketSCMSource} for a given repository without walking all
+ * of them for every hook.
+ * <p>
+ * The index is built the first time it is used and then kept up to date as items are created, saved or deleted.
+ * Callers still have to check the sources of the owners returned, the index only narrows down where to look.
+ */
+@Restricted(NoExternalUse.class)
+public final class BitbucketSCMSourceIndex {
+
+    private static final BitbucketSCMSourceIndex INSTANCE = new BitbucketSCMSourceIndex();
+
+    /**
+     * The owners with a source for each repository.
+     */
+    private final Map<String, Set<SCMSourceOwner>> owners = new HashMap<>();
+
+    /**
+     * The repositories of each owner, to update {@link #owners} when the owner changes.
+     */
+    private final Map<SCMSourceOwner, Set<String>> repositories = new HashMap<>();
+
+    private boolean built;
+
+    @NonNull
+    public static BitbucketSCMSourceIndex get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the owners that have a source for the given repository.
+     *
+     * @param repoOwner the repository owner, compared ignoring case.
+     * @param repository the repository name.
+     * @return the owners that may have a source for the repository.
+     */
+    @NonNull
+    public List<SCMSourceOwner> getOwners(@NonNull String repoOwner, @NonNull String repository) {
+        List<SCMSourceOwner> result;
+        synchronized (this) {
+            if (!built) {
+                build();
+            }
+            Set<SCMSourceOwner> found = owners.get(key(repoOwner, repository));
+            if (found == null) {
+                return Collections.emptyList();
+            }
+            result = new ArrayList<>(found);
+        }
+        result.removeIf(owner -> {
+            if (isDeleted(owner)) {
+                remove(owner);
+                return true;
+            }
+            return false;
+        });
+        return result;
+    }
+
+    /**
+     * Forgets everything, the index is built again the next time it is used.
+     */
+    synchronized void invalidate() {
+        built = false;
+        owners.clear();
+        repositories.clear();
+    }
+
+    /**
+     * Indexes the current sources of an owner.
+     */
+    synchronized void update(@NonNull SCMSourceOwner owner) {
+        if (!built) {
+            // will be indexed when built
+            return;
+        }
+        remove(owner);
+        Set<String> keys = new HashSet<>();
+        for (SCMSource source : owner.getSCMSources()) {
+            if (source instanceof BitbucketSCMSource) {
+                keys.add(key(((BitbucketSCMSource) source).getRepoOwner(), ((BitbucketSCMSource) source).getRepository()));
+            }
+        }
+        if (!keys.isEmpty()) {
+            repositories.put(owner, keys);
+            for (String key : keys) {
+                owners.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(owner);
+            }
+        }
+    }
+
+    /**
+     * Forgets an owner.
+     */
+    synchronized void remove(@NonNull SCMSourceOwner owner) {
+        Set<String> keys = repositories.remove(owner);
+        if (keys != null) {
+            for (String key : keys) {
+                Set<SCMSourceOwner> found = owners.get(key);
+                if (found != null) {
+                    found.remove(owner);
+                    if (found.isEmpty()) {
+                        owners.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private void build() {
+        built = true;
+        // every owner has to be indexed, not only the ones visible to the current user
+        try (ACLContext context = ACL.as(ACL.SYSTEM)) {
+            for (SCMSourceOwner owner : SCMSourceOwners.all()) {
+                update(owner);
+            }
+        }
+    }
+
+    private static String key(String repoOwner, String repository) {
+        return repoOwner.toLowerCase(Locale.ENGLISH) + '/' + repository;
+    }
+
+    /**
+     * Checks whether the item of the owner was deleted meanwhile, for example together with its folder.
+     */
+    private static boolean isDeleted(SCMSourceOwner owner) {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins == null || !(owner instanceof Item)) {
+            return false;
+        }
+        try (ACLContext context = ACL.as(ACL.SYSTEM)) {
+            return jenkins.getItemByFullName(owner.getFullName()) != owner;
+        }
+    }
+
+    /**
+     * Keeps the index up to date as the items are created, renamed or deleted.
+     */
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            INSTANCE.invalidate();
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            if (item instanceof SCMSourceOwner) {
+                INSTANCE.update((SCMSourceOwner) item);
+            }
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            if (item instanceof SCMSourceOwner) {
+                INSTANCE.update((SCMSourceOwner) item);
+            }
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            if (item instanceof SCMSourceOwner) {
+                INSTANCE.remove((SCMSourceOwner) item);
+            }
+        }
+    }
+
+    /**
+     * Keeps the index up to date when the sources of an item are changed without reconfiguring it, for example by
+     * the organization folder it belongs to.
+     */
+    @Extension
+    public static class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SCMSourceOwner) {
+                INSTANCE.update((SCMSourceOwner) o);
+            }
+        }
+    }
+}
@@ -69,11 +69,11 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
     }
 
     /**
-     * Receives Bitbucket push notifications.
+     * Receives Bitbucket push notifications, they are processed in the background unless too many are waiting.
      *
      * @param req Stapler request. It contains the payload in the body content
      *          and a header param "X-Event-Key" pointing to the event type.
-     * @return the HTTP response object
+     * @return {@code 202 Accepted} once the event is queued, {@code 200 OK} once processed.
      * @throws IOException if there is any issue reading the HTTP content payload.
      */
     public HttpResponse doNotify(StaplerRequest req) throws IOException {
@@ -102,12 +102,15 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
             LOGGER.log(Level.FINE, "X-Bitbucket-Type header / server_url request parameter not found. Bitbucket Cloud webhook incoming.");
         }
 
-        try {
-            type.getProcessor().process(type, body, instanceType, origin, serverUrl);
-        } catch (AbstractMethodError e) {
-            type.getProcessor().process(body, instanceType);
-        }
-        return HttpResponses.ok();
+        final BitbucketType bitbucketType = instanceType;
+        boolean queued = HookEventQueue.get().submit(() -> {
+            try {
+                type.getProcessor().process(type, body, bitbucketType, origin, serverUrl);
+            } catch (AbstractMethodError e) {
+                type.getProcessor().process(body, bitbucketType);
+            }
+        });
+        return queued ? HttpResponses.status(HttpServletResponse.SC_ACCEPTED) : HttpResponses.ok();
     }
 
     @Override
@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Merges the changes of the hooks received for a repository while its events wait to be fired, so that a burst of
+ * hooks, for example a large push or a mirror synchronization, is evaluated once against the sources instead of once
+ * per hook.
+ * <p>
+ * The first hook of a burst opens a window as long as the event delay, the changes of the following hooks are added
+ * to it until it closes and the events are fired with the merged changes. When several hooks change the same ref,
+ * the latest change wins.
+ */
+@Restricted(NoExternalUse.class)
+public final class HookEventCoalescer {
+
+    private static final Logger LOGGER = Logger.getLogger(HookEventCoalescer.class.getName());
+
+    private static final HookEventCoalescer INSTANCE = new HookEventCoalescer(Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), HookEventCoalescer.class.getName())));
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The open windows by key, guarded by {@code this}.
+     */
+    private final Map<String, Burst<?>> bursts = new HashMap<>();
+
+    private final AtomicLong fired = new AtomicLong();
+
+    private final AtomicLong merged = new AtomicLong();
+
+    HookEventCoalescer(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @NonNull
+    public static HookEventCoalescer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds the changes of a hook to the open window of its key, or opens one.
+     *
+     * @param key identifies the repository and the kind of hook, only the changes of the same key are merged.
+     * @param changes the changes of the hook by ref.
+     * @param fire fires the events for the merged changes once the window closes, the one of the latest hook is
+     *             used.
+     * @param delay how long the window stays open, nothing is merged if not positive.
+     * @param unit the unit of the delay.
+     * @param <R> the type of the refs.
+     * @param <C> the type of the changes.
+     */
+    @SuppressWarnings("unchecked")
+    public <R, C> void submit(@NonNull String key, @NonNull Map<R, C> changes, @NonNull Consumer<Collection<C>> fire,
+                              long delay, @NonNull TimeUnit unit) {
+        if (delay <= 0) {
+            fired.incrementAndGet();
+            fire.accept(new ArrayList<>(changes.values()));
+            return;
+        }
+        synchronized (this) {
+            Burst<C> burst = (Burst<C>) bursts.get(key);
+            if (burst != null) {
+                burst.add(changes, fire);
+                merged.incrementAndGet();
+                return;
+            }
+            burst = new Burst<>(changes, fire);
+            bursts.put(key, burst);
+        }
+        scheduler.schedule(() -> close(key), delay, unit);
+    }
+
+    private void close(String key) {
+        Burst<?> burst;
+        synchronized (this) {
+            burst = bursts.remove(key);
+        }
+        if (burst != null) {
+            fired.incrementAndGet();
+            try {
+                burst.fire();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not fire the events of Bitbucket hooks for " + key, e);
+            }
+        }
+    }
+
+    /**
+     * @return how many windows are open.
+     */
+    public synchronized int getOpen() {
+        return bursts.size();
+    }
+
+    /**
+     * @return how many times events were fired.
+     */
+    public long getFired() {
+        return fired.get();
+    }
+
+    /**
+     * @return how many hooks were merged into an open window.
+     */
+    public long getMerged() {
+        return merged.get();
+    }
+
+    @Override
+    public String toString() {
+        return getOpen() + " open, " + getFired() + " fired, " + getMerged() + " merged.";
+    }
+
+    private static final class Burst<C> {
+        private final Map<Object, C> changes = new LinkedHashMap<>();
+        private Consumer<Collection<C>> fire;
+
+        Burst(Map<?, C> changes, Consumer<Collection<C>> fire) {
+            add(changes, fire);
+        }
+
+        void add(Map<?, C> changes, Consumer<Collection<C>> fire) {
+            for (Map.Entry<?, C> change : changes.entrySet()) {
+                // keep the refs in the order of their latest change
+                this.changes.remove(change.getKey());
+                this.changes.put(change.getKey(), change.getValue());
+            }
+            this.fire = fire;
+        }
+
+        void fire() {
+            fire.accept(new ArrayList<>(changes.values()));
+        }
+    }
+}
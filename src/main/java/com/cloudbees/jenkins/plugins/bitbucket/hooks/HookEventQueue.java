@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Processes the received hooks in the background so that Bitbucket gets its answer right away, Bitbucket Server
+ * disables the hooks that are too slow to answer.
+ * <p>
+ * The queue is bounded, once it is full the hooks are processed on the receiving thread again which slows down the
+ * sender instead of dropping events.
+ */
+@Restricted(NoExternalUse.class)
+public final class HookEventQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(HookEventQueue.class.getName());
+
+    /**
+     * How many hooks can wait to be processed, {@code 0} processes them on the receiving thread.
+     */
+    private static final int CAPACITY_DEFAULT =
+            Math.max(0, Integer.getInteger(HookEventQueue.class.getName() + ".capacity", 1000));
+
+    /**
+     * How many hooks are processed at the same time.
+     */
+    private static final int WORKERS_DEFAULT =
+            Math.max(1, Integer.getInteger(HookEventQueue.class.getName() + ".workers", 2));
+
+    private static final HookEventQueue INSTANCE = new HookEventQueue(CAPACITY_DEFAULT, WORKERS_DEFAULT);
+
+    @CheckForNull
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong queued = new AtomicLong();
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong overflowed = new AtomicLong();
+
+    HookEventQueue(int capacity, int workers) {
+        if (capacity > 0) {
+            executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    new NamingThreadFactory(new DaemonThreadFactory(), HookEventQueue.class.getName()),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            executor = null;
+        }
+    }
+
+    @NonNull
+    public static HookEventQueue get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Processes a hook in the background, or right away if the queue is full or disabled.
+     *
+     * @param hook the processing of the hook.
+     * @return {@code true} if the hook was queued, {@code false} if it was processed already.
+     */
+    public boolean submit(@NonNull Runnable hook) {
+        if (executor != null) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        process(hook);
+                    } catch (RuntimeException | Error e) {
+                        LOGGER.log(Level.WARNING, "Could not process a Bitbucket hook", e);
+                    }
+                });
+                queued.incrementAndGet();
+                return true;
+            } catch (RejectedExecutionException e) {
+                long count = overflowed.incrementAndGet();
+                if (count % 100 == 1) {
+                    LOGGER.log(Level.WARNING, "Processing Bitbucket hooks on the receiving thread as {0} are "
+                            + "waiting already, {1} so far", new Object[]{executor.getQueue().size(), count});
+                }
+            }
+        }
+        process(hook);
+        return false;
+    }
+
+    private void process(Runnable hook) {
+        try {
+            hook.run();
+            processed.incrementAndGet();
+        } catch (RuntimeException | Error e) {
+            failed.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @return how many hooks are waiting to be processed.
+     */
+    public int getWaiting() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * @return how many hooks were queued.
+     */
+    public long getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return how many hooks were processed, successfully or not.
+     */
+    public long getProcessed() {
+        return processed.get() + failed.get();
+    }
+
+    /**
+     * @return how many hooks could not be processed.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return how many hooks were processed on the receiving thread because the queue was full.
+     */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    @Override
+    public String toString() {
+        return getWaiting() + " waiting, " + getQueued() + " queued, " + getProcessed() + " processed, "
+                + getFailed() + " failed, " + getOverflowed() + " overflowed.";
+    }
+}
@@ -31,7 +31,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceOwner;
-import jenkins.scm.api.SCMSourceOwners;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -92,7 +91,7 @@ public abstract class HookProcessor {
     protected void scmSourceReIndex(final String owner, final String repository) {
         try (ACLContext context = ACL.as(ACL.SYSTEM)) {
             boolean reindexed = false;
-            for (SCMSourceOwner scmOwner : SCMSourceOwners.all()) {
+            for (SCMSourceOwner scmOwner : BitbucketSCMSourceIndex.get().getOwners(owner, repository)) {
                 List<SCMSource> sources = scmOwner.getSCMSources();
                 for (SCMSource source : sources) {
                     // Search for the correct SCM source
@@ -90,6 +90,11 @@ public class NativeServerPullRequestHookProcessor extends HookProcessor {
                 return;
         }
 
+        if (serverUrl != null && pullRequestEvent.getPullRequest() != null) {
+            NativeServerPullRequestIndex.get().update(serverUrl, pullRequestEvent.getPullRequest(),
+                eventType != SCMEvent.Type.REMOVED);
+        }
+
         SCMHeadEvent.fireLater(new HeadEvent(serverUrl, eventType, pullRequestEvent, origin), BitbucketSCMSource.getEventDelaySeconds(), TimeUnit.SECONDS);
     }
 
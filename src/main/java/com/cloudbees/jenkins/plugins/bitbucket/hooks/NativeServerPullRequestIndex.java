@@ -0,0 +1,312 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequest;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequestDestination;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequestSource;
+import com.cloudbees.jenkins.plugins.bitbucket.server.events.NativeServerChange;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Knows the open pull requests of the Bitbucket Server repositories, so that push hooks can tell which pull requests
+ * a changed ref belongs to without asking Bitbucket for each ref.
+ * <p>
+ * The open pull requests of a repository are recorded when a scan lists them all, then kept up to date by the pull
+ * request hooks. The latest commit of the refs is recorded from the push hooks as the pull requests themselves are
+ * only updated by the hooks of the pull requests. A repository that was not scanned recently enough is not known and
+ * the callers have to ask Bitbucket.
+ */
+@Restricted(NoExternalUse.class)
+public final class NativeServerPullRequestIndex {
+
+    /**
+     * How long the pull requests of a scan are trusted, in minutes, {@code 0} disables the index.
+     */
+    private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(NativeServerPullRequestIndex.class.getName() + ".maxAgeMinutes", 60)));
+
+    /**
+     * How many repositories are known at most.
+     */
+    private static final int MAX_REPOSITORIES =
+            Math.max(1, Integer.getInteger(NativeServerPullRequestIndex.class.getName() + ".maxRepositories", 1000));
+
+    private static final NativeServerPullRequestIndex INSTANCE = new NativeServerPullRequestIndex(MAX_AGE, MAX_REPOSITORIES);
+
+    private final long maxAge;
+
+    /**
+     * The open pull requests of each repository, guarded by {@code this}.
+     */
+    private final Map<String, Snapshot> snapshots;
+
+    /**
+     * The latest commit of the refs, guarded by {@code this}.
+     */
+    private final Map<String, String> commits;
+
+    NativeServerPullRequestIndex(long maxAge, int maxRepositories) {
+        this.maxAge = maxAge;
+        this.snapshots = new LinkedHashMap<String, Snapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxRepositories;
+            }
+        };
+        this.commits = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > 50 * maxRepositories;
+            }
+        };
+    }
+
+    @NonNull
+    public static NativeServerPullRequestIndex get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the open pull requests of a repository once they were all listed.
+     *
+     * @param serverUrl the server URL of the repository.
+     * @param owner the owner of the repository.
+     * @param repository the name of the repository.
+     * @param pullRequests the listing of all the open pull requests of the repository.
+     * @param <P> the type of the pull requests.
+     * @return the listing, recording the pull requests once iterated to its end.
+     */
+    @NonNull
+    public <P extends BitbucketPullRequest> Iterable<P> recording(@NonNull String serverUrl, @NonNull String owner,
+                                                                  @NonNull String repository,
+                                                                  @NonNull Iterable<P> pullRequests) {
+        if (maxAge <= 0) {
+            return pullRequests;
+        }
+        return () -> new Iterator<P>() {
+            private final Iterator<P> delegate = pullRequests.iterator();
+            private final List<BitbucketServerPullRequest> listed = new ArrayList<>();
+            private boolean recorded;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = delegate.hasNext();
+                if (!hasNext && !recorded) {
+                    recorded = true;
+                    record(serverUrl, owner, repository, listed);
+                }
+                return hasNext;
+            }
+
+            @Override
+            public P next() {
+                P next = delegate.next();
+                if (next instanceof BitbucketServerPullRequest) {
+                    listed.add((BitbucketServerPullRequest) next);
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Records the open pull requests of a repository.
+     */
+    synchronized void record(@NonNull String serverUrl, @NonNull String owner, @NonNull String repository,
+                             @NonNull Collection<BitbucketServerPullRequest> pullRequests) {
+        Snapshot snapshot = new Snapshot(System.currentTimeMillis());
+        for (BitbucketServerPullRequest pullRequest : pullRequests) {
+            if (isComplete(pullRequest)) {
+                snapshot.pullRequests.put(pullRequest.getId(), pullRequest);
+                recordCommits(serverUrl, pullRequest);
+            }
+        }
+        snapshots.put(key(serverUrl, owner, repository), snapshot);
+    }
+
+    /**
+     * Keeps the pull requests of its target repository up to date with a pull request hook.
+     *
+     * @param serverUrl the server URL of the hook.
+     * @param pullRequest the pull request of the hook.
+     * @param open whether the pull request is still open.
+     */
+    public synchronized void update(@NonNull String serverUrl, @NonNull BitbucketServerPullRequest pullRequest,
+                                    boolean open) {
+        BitbucketRepository target = pullRequest.getDestination().getRepository();
+        if (target == null || pullRequest.getId() == null) {
+            return;
+        }
+        Snapshot snapshot = snapshots.get(key(serverUrl, target.getOwnerName(), target.getRepositoryName()));
+        if (snapshot == null) {
+            return;
+        }
+        if (open && isComplete(pullRequest)) {
+            snapshot.pullRequests.put(pullRequest.getId(), pullRequest);
+            recordCommits(serverUrl, pullRequest);
+        } else {
+            snapshot.pullRequests.remove(pullRequest.getId());
+        }
+    }
+
+    /**
+     * Records the latest commit of the refs changed by a push hook.
+     *
+     * @param serverUrl the server URL of the hook.
+     * @param repository the repository of the changed refs.
+     * @param changes the changes of the hook.
+     */
+    public synchronized void pushed(@NonNull String serverUrl, @NonNull BitbucketRepository repository,
+                                    @NonNull Collection<NativeServerChange> changes) {
+        for (NativeServerChange change : changes) {
+            if (change.getRefId() == null) {
+                continue;
+            }
+            String key = refKey(serverUrl, repository, change.getRefId());
+            if ("DELETE".equals(change.getType()) || change.getToHash() == null) {
+                commits.remove(key);
+            } else {
+                commits.put(key, change.getToHash());
+            }
+        }
+    }
+
+    /**
+     * Returns the open pull requests of a repository from or to a ref.
+     *
+     * @param serverUrl the server URL of the repository.
+     * @param owner the owner of the repository the pull requests target.
+     * @param repository the name of the repository the pull requests target.
+     * @param refRepository the repository of the ref.
+     * @param refId the ref.
+     * @return the pull requests, or {@code null} if the open pull requests of the repository are not known.
+     */
+    @CheckForNull
+    public synchronized List<BitbucketServerPullRequest> getPullRequests(@NonNull String serverUrl,
+                                                                         @NonNull String owner,
+                                                                         @NonNull String repository,
+                                                                         @NonNull BitbucketRepository refRepository,
+                                                                         @NonNull String refId) {
+        String key = key(serverUrl, owner, repository);
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - snapshot.recorded > maxAge) {
+            snapshots.remove(key);
+            return null;
+        }
+        List<BitbucketServerPullRequest> result = new ArrayList<>();
+        for (BitbucketServerPullRequest pullRequest : snapshot.pullRequests.values()) {
+            BitbucketServerPullRequestSource source = pullRequest.getSource();
+            BitbucketServerPullRequestDestination destination = pullRequest.getDestination();
+            if (isRef(source.getRepository(), source.getRefId(), refRepository, refId)
+                    || isRef(destination.getRepository(), destination.getRefId(), refRepository, refId)) {
+                result.add(pullRequest);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the latest known commit of a ref.
+     *
+     * @param serverUrl the server URL of the repository.
+     * @param repository the repository of the ref.
+     * @param refId the ref.
+     * @param commit the commit to return if none is known.
+     * @return the latest known commit of the ref.
+     */
+    public synchronized String getLatestCommit(@NonNull String serverUrl, @NonNull BitbucketRepository repository,
+                                               @CheckForNull String refId, String commit) {
+        String latest = refId == null ? null : commits.get(refKey(serverUrl, repository, refId));
+        return latest == null ? commit : latest;
+    }
+
+    /**
+     * Forgets everything.
+     */
+    public synchronized void clear() {
+        snapshots.clear();
+        commits.clear();
+    }
+
+    private void recordCommits(String serverUrl, BitbucketServerPullRequest pullRequest) {
+        BitbucketServerPullRequestSource source = pullRequest.getSource();
+        BitbucketServerPullRequestDestination destination = pullRequest.getDestination();
+        if (source.getRefId() != null && source.getBranch().getRawNode() != null) {
+            commits.put(refKey(serverUrl, source.getRepository(), source.getRefId()), source.getBranch().getRawNode());
+        }
+        if (destination.getRepository() != null && destination.getRefId() != null
+                && destination.getBranch().getRawNode() != null) {
+            commits.put(refKey(serverUrl, destination.getRepository(), destination.getRefId()),
+                    destination.getBranch().getRawNode());
+        }
+    }
+
+    private static boolean isComplete(BitbucketServerPullRequest pullRequest) {
+        return pullRequest.getId() != null
+                && pullRequest.getSource() != null && pullRequest.getSource().getRepository() != null
+                && pullRequest.getSource().getBranch() != null
+                && pullRequest.getDestination() != null && pullRequest.getDestination().getBranch() != null;
+    }
+
+    private static boolean isRef(BitbucketRepository repository, String refId,
+                                 BitbucketRepository refRepository, String ref) {
+        return repository != null && ref.equals(refId)
+                && repository.getOwnerName().equalsIgnoreCase(refRepository.getOwnerName())
+                && repository.getRepositoryName().equalsIgnoreCase(refRepository.getRepositoryName());
+    }
+
+    private static String key(String serverUrl, String owner, String repository) {
+        return serverUrl + '|' + owner.toLowerCase(Locale.ENGLISH) + '/' + repository.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static String refKey(String serverUrl, BitbucketRepository repository, String refId) {
+        return key(serverUrl, repository.getOwnerName(), repository.getRepositoryName()) + '|' + refId;
+    }
+
+    private static final class Snapshot {
+        private final long recorded;
+        private final Map<String, BitbucketServerPullRequest> pullRequests = new LinkedHashMap<>();
+
+        Snapshot(long recorded) {
+            this.recorded = recorded;
+        }
+    }
+}
@@ -47,6 +47,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -111,6 +112,24 @@ public class NativeServerPushHookProcessor extends HookProcessor {
             return;
         }
 
+        if (mirrorId == null && serverUrl != null) {
+            NativeServerPullRequestIndex.get().pushed(serverUrl, repository, changes);
+        }
+
+        final Map<String, NativeServerChange> changesByRef = new LinkedHashMap<>();
+        for (final NativeServerChange change : changes) {
+            changesByRef.put(change.getRefId(), change);
+        }
+        // the changes of the hooks received for this repository until the events are fired are merged together
+        final String key = "native:" + serverUrl + "|" + mirrorId + "|"
+            + repository.getOwnerName() + "/" + repository.getRepositoryName();
+        HookEventCoalescer.get().submit(key, changesByRef,
+            merged -> fireEvents(serverUrl, origin, repository, mirrorId, merged),
+            BitbucketSCMSource.getEventDelaySeconds(), TimeUnit.SECONDS);
+    }
+
+    private static void fireEvents(String serverUrl, String origin, BitbucketServerRepository repository,
+        String mirrorId, Collection<NativeServerChange> changes) {
         final Multimap<SCMEvent.Type, NativeServerChange> events = HashMultimap.create();
         for (final NativeServerChange change : changes) {
             final String type = change.getType();
@@ -127,7 +146,7 @@ public class NativeServerPushHookProcessor extends HookProcessor {
 
         for (final SCMEvent.Type type : events.keySet()) {
             HeadEvent headEvent = new HeadEvent(serverUrl, type, events.get(type), origin, repository, mirrorId);
-            SCMHeadEvent.fireLater(headEvent, BitbucketSCMSource.getEventDelaySeconds(), TimeUnit.SECONDS);
+            SCMHeadEvent.fireNow(headEvent);
         }
     }
 
@@ -211,7 +230,10 @@ public class NativeServerPushHookProcessor extends HookProcessor {
                 }
 
                 // iterate over all PRs in which this change is involved
-                for (final BitbucketServerPullRequest pullRequest : getPullRequests(src, change).values()) {
+                final List<BitbucketServerPullRequest> indexed = getIndexedPullRequests(src, change);
+                final Collection<BitbucketServerPullRequest> pullRequests = indexed != null
+                    ? indexed : getPullRequests(src, change).values();
+                for (final BitbucketServerPullRequest pullRequest : pullRequests) {
                     final BitbucketServerRepository targetRepo = pullRequest.getDestination().getRepository();
                     // check if the target of the PR is actually this source
                     if (!sourceOwnerName.equalsIgnoreCase(targetRepo.getOwnerName())
@@ -239,8 +261,16 @@ public class NativeServerPushHookProcessor extends HookProcessor {
                             strategy
                         );
 
-                        final String targetHash = pullRequest.getDestination().getCommit().getHash();
-                        final String pullHash = pullRequest.getSource().getCommit().getHash();
+                        String targetHash = pullRequest.getDestination().getCommit().getHash();
+                        String pullHash = pullRequest.getSource().getCommit().getHash();
+                        if (indexed != null) {
+                            // the indexed pull requests only know the commits of their last hook
+                            final NativeServerPullRequestIndex index = NativeServerPullRequestIndex.get();
+                            targetHash = index.getLatestCommit(src.getServerUrl(), targetRepo,
+                                pullRequest.getDestination().getRefId(), targetHash);
+                            pullHash = index.getLatestCommit(src.getServerUrl(), pullRequestRepository,
+                                pullRequest.getSource().getRefId(), pullHash);
+                        }
 
                         result.put(head,
                             new PullRequestSCMRevision(head,
@@ -251,6 +281,18 @@ public class NativeServerPushHookProcessor extends HookProcessor {
             }
         }
 
+        /**
+         * Returns the open pull requests of the source from or to the changed ref if they are known already.
+         */
+        @CheckForNull
+        private List<BitbucketServerPullRequest> getIndexedPullRequests(BitbucketSCMSource src, NativeServerChange change) {
+            if (mirrorId != null || change.getRefId() == null) {
+                return null;
+            }
+            return NativeServerPullRequestIndex.get().getPullRequests(src.getServerUrl(), src.getRepoOwner(),
+                src.getRepository(), repository, change.getRefId());
+        }
+
         private Map<String, BitbucketServerPullRequest> getPullRequests(BitbucketSCMSource src, NativeServerChange change)
             throws InterruptedException {
 
@@ -306,8 +348,8 @@ public class NativeServerPushHookProcessor extends HookProcessor {
         public Collection<BitbucketPullRequest> getPullRequests(BitbucketSCMSource src) throws InterruptedException {
             List<BitbucketPullRequest> prs = new ArrayList<>();
             for (final NativeServerChange change : getPayload()) {
-                Map<String, BitbucketServerPullRequest> prsForChange = getPullRequests(src, change);
-                prs.addAll(prsForChange.values());
+                final List<BitbucketServerPullRequest> indexed = getIndexedPullRequests(src, change);
+                prs.addAll(indexed != null ? indexed : getPullRequests(src, change).values());
             }
 
             return prs;
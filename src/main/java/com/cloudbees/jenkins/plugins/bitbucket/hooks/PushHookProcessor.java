@@ -33,16 +33,21 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent.Reference;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent.Target;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudWebhookPayload;
 import com.cloudbees.jenkins.plugins.bitbucket.client.events.BitbucketCloudPushEvent;
+import com.cloudbees.jenkins.plugins.bitbucket.client.repository.BitbucketCloudRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerWebhookPayload;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.server.events.BitbucketServerPushEvent;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.scm.SCM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -78,133 +83,189 @@ public class PushHookProcessor extends HookProcessor {
                             new Object[]{owner, repository});
                     scmSourceReIndex(owner, repository);
                 } else {
-                    SCMHeadEvent.Type type = null;
+                    Map<String, BitbucketPushEvent.Change> changesByRef = new LinkedHashMap<>();
                     for (BitbucketPushEvent.Change change: push.getChanges()) {
-                        if ((type == null || type == SCMEvent.Type.CREATED) && change.isCreated()) {
-                            type = SCMEvent.Type.CREATED;
-                        } else if ((type == null || type == SCMEvent.Type.REMOVED) && change.isClosed()) {
-                            type = SCMEvent.Type.REMOVED;
-                        } else {
-                            type = SCMEvent.Type.UPDATED;
-                        }
+                        changesByRef.put(refOf(change), change);
                     }
-                    SCMHeadEvent.fireLater(new SCMHeadEvent<BitbucketPushEvent>(type, push, origin) {
-                        @Override
-                        public boolean isMatch(@NonNull SCMNavigator navigator) {
-                            if (!(navigator instanceof BitbucketSCMNavigator)) {
-                                return false;
-                            }
-                            BitbucketSCMNavigator bbNav = (BitbucketSCMNavigator) navigator;
-                            if (!isProjectKeyMatch(bbNav.getProjectKey())) {
-                                return false;
-                            }
-                            if (!isServerUrlMatch(bbNav.getServerUrl())) {
-                                return false;
-                            }
-                            return bbNav.getRepoOwner().equalsIgnoreCase(getPayload().getRepository().getOwnerName());
-                        }
+                    // the changes of the hooks received for this repository until the event is fired are merged
+                    String key = instanceType + ":" + selfLinkOf(push) + "|" + owner + "/" + repository;
+                    HookEventCoalescer.get().submit(key, changesByRef, merged -> fireEvent(merge(push, merged), origin),
+                            BitbucketSCMSource.getEventDelaySeconds(), TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
 
-                        private boolean isProjectKeyMatch(String projectKey) {
-                            if (StringUtils.isBlank(projectKey)) {
-                                return true;
-                            }
-                            if (this.getPayload().getRepository().getProject() != null) {
-                                return projectKey.equals(this.getPayload().getRepository().getProject().getKey());
-                            }
-                            return true;
-                        }
+    /**
+     * Builds the payload of the event fired for the merged changes of the hooks, so that it describes the same changes
+     * as the heads of the event.
+     *
+     * @param push the push of the latest hook.
+     * @param changes the merged changes of the hooks.
+     * @return a push of the repository of the latest hook with the merged changes.
+     */
+    static BitbucketPushEvent merge(BitbucketPushEvent push, Collection<? extends BitbucketPushEvent.Change> changes) {
+        if (push instanceof BitbucketServerPushEvent) {
+            BitbucketServerPushEvent merged = new BitbucketServerPushEvent();
+            merged.setRepository((BitbucketServerRepository) push.getRepository());
+            List<BitbucketServerPushEvent.ChangeImpl> list = new ArrayList<>(changes.size());
+            for (BitbucketPushEvent.Change change : changes) {
+                list.add((BitbucketServerPushEvent.ChangeImpl) change);
+            }
+            merged.setChanges(list);
+            return merged;
+        }
+        if (push instanceof BitbucketCloudPushEvent) {
+            BitbucketCloudPushEvent merged = new BitbucketCloudPushEvent();
+            merged.setRepository((BitbucketCloudRepository) push.getRepository());
+            List<BitbucketCloudPushEvent.ChangeImpl> list = new ArrayList<>(changes.size());
+            for (BitbucketPushEvent.Change change : changes) {
+                list.add((BitbucketCloudPushEvent.ChangeImpl) change);
+            }
+            merged.setChanges(list);
+            return merged;
+        }
+        return push;
+    }
 
-                        private boolean isServerUrlMatch(String serverUrl) {
-                            if (serverUrl == null || BitbucketCloudEndpoint.SERVER_URL.equals(serverUrl)) {
-                                // this is a Bitbucket cloud navigator
-                                if (getPayload() instanceof BitbucketServerPushEvent) {
-                                    return false;
-                                }
-                            } else {
-                                // this is a Bitbucket server navigator
-                                if (getPayload() instanceof BitbucketCloudPushEvent) {
-                                    return false;
-                                }
-                                Map<String, List<BitbucketHref>> links = getPayload().getRepository().getLinks();
-                                if (links != null && links.containsKey("self")) {
-                                    boolean matches = false;
-                                    for (BitbucketHref link : links.get("self")) {
-                                        try {
-                                            URI navUri = new URI(serverUrl);
-                                            URI evtUri = new URI(link.getHref());
-                                            if (navUri.getHost().equalsIgnoreCase(evtUri.getHost())) {
-                                                matches = true;
-                                                break;
-                                            }
-                                        } catch (URISyntaxException e) {
-                                            // ignore
-                                        }
-                                    }
-                                    return matches;
+    private static void fireEvent(BitbucketPushEvent push, String origin) {
+        SCMHeadEvent.Type type = null;
+        for (BitbucketPushEvent.Change change: push.getChanges()) {
+            if ((type == null || type == SCMEvent.Type.CREATED) && change.isCreated()) {
+                type = SCMEvent.Type.CREATED;
+            } else if ((type == null || type == SCMEvent.Type.REMOVED) && change.isClosed()) {
+                type = SCMEvent.Type.REMOVED;
+            } else {
+                type = SCMEvent.Type.UPDATED;
+            }
+        }
+        SCMHeadEvent.fireNow(new SCMHeadEvent<BitbucketPushEvent>(type, push, origin) {
+            @Override
+            public boolean isMatch(@NonNull SCMNavigator navigator) {
+                if (!(navigator instanceof BitbucketSCMNavigator)) {
+                    return false;
+                }
+                BitbucketSCMNavigator bbNav = (BitbucketSCMNavigator) navigator;
+                if (!isProjectKeyMatch(bbNav.getProjectKey())) {
+                    return false;
+                }
+                if (!isServerUrlMatch(bbNav.getServerUrl())) {
+                    return false;
+                }
+                return bbNav.getRepoOwner().equalsIgnoreCase(getPayload().getRepository().getOwnerName());
+            }
+
+            private boolean isProjectKeyMatch(String projectKey) {
+                if (StringUtils.isBlank(projectKey)) {
+                    return true;
+                }
+                if (this.getPayload().getRepository().getProject() != null) {
+                    return projectKey.equals(this.getPayload().getRepository().getProject().getKey());
+                }
+                return true;
+            }
+
+            private boolean isServerUrlMatch(String serverUrl) {
+                if (serverUrl == null || BitbucketCloudEndpoint.SERVER_URL.equals(serverUrl)) {
+                    // this is a Bitbucket cloud navigator
+                    if (getPayload() instanceof BitbucketServerPushEvent) {
+                        return false;
+                    }
+                } else {
+                    // this is a Bitbucket server navigator
+                    if (getPayload() instanceof BitbucketCloudPushEvent) {
+                        return false;
+                    }
+                    Map<String, List<BitbucketHref>> links = getPayload().getRepository().getLinks();
+                    if (links != null && links.containsKey("self")) {
+                        boolean matches = false;
+                        for (BitbucketHref link : links.get("self")) {
+                            try {
+                                URI navUri = new URI(serverUrl);
+                                URI evtUri = new URI(link.getHref());
+                                if (navUri.getHost().equalsIgnoreCase(evtUri.getHost())) {
+                                    matches = true;
+                                    break;
                                 }
+                            } catch (URISyntaxException e) {
+                                // ignore
                             }
-                            return true;
                         }
+                        return matches;
+                    }
+                }
+                return true;
+            }
 
-                        @NonNull
-                        @Override
-                        public String getSourceName() {
-                            return getPayload().getRepository().getRepositoryName();
-                        }
+            @NonNull
+            @Override
+            public String getSourceName() {
+                return getPayload().getRepository().getRepositoryName();
+            }
 
-                        @NonNull
-                        @Override
-                        public Map<SCMHead, SCMRevision> heads(@NonNull SCMSource source) {
-                            if (!(source instanceof BitbucketSCMSource)) {
-                                return Collections.emptyMap();
-                            }
-                            BitbucketSCMSource src = (BitbucketSCMSource) source;
-                            if (!isServerUrlMatch(src.getServerUrl())) {
-                                return Collections.emptyMap();
-                            }
-                            if (!src.getRepoOwner().equalsIgnoreCase(getPayload().getRepository().getOwnerName())) {
-                                return Collections.emptyMap();
-                            }
-                            if (!src.getRepository().equalsIgnoreCase(getPayload().getRepository().getRepositoryName())) {
-                                return Collections.emptyMap();
-                            }
+            @NonNull
+            @Override
+            public Map<SCMHead, SCMRevision> heads(@NonNull SCMSource source) {
+                if (!(source instanceof BitbucketSCMSource)) {
+                    return Collections.emptyMap();
+                }
+                BitbucketSCMSource src = (BitbucketSCMSource) source;
+                if (!isServerUrlMatch(src.getServerUrl())) {
+                    return Collections.emptyMap();
+                }
+                if (!src.getRepoOwner().equalsIgnoreCase(getPayload().getRepository().getOwnerName())) {
+                    return Collections.emptyMap();
+                }
+                if (!src.getRepository().equalsIgnoreCase(getPayload().getRepository().getRepositoryName())) {
+                    return Collections.emptyMap();
+                }
 
-                            Map<SCMHead, SCMRevision> result = new HashMap<>();
-                            for (BitbucketPushEvent.Change change: getPayload().getChanges()) {
-                                if (change.isClosed()) {
-                                    result.put(new BranchSCMHead(change.getOld().getName()), null);
-                                } else {
-                                    // created is true
-                                    Reference newChange = change.getNew();
-                                    Target target = newChange.getTarget();
+                Map<SCMHead, SCMRevision> result = new HashMap<>();
+                for (BitbucketPushEvent.Change change: getPayload().getChanges()) {
+                    if (change.isClosed()) {
+                        result.put(new BranchSCMHead(change.getOld().getName()), null);
+                    } else {
+                        // created is true
+                        Reference newChange = change.getNew();
+                        Target target = newChange.getTarget();
 
-                                    SCMHead head = null;
-                                    String eventType = newChange.getType();
-                                    if ("tag".equals(eventType)) {
-                                        // for BB Cloud date is valued only in case of annotated tag
-                                        Date tagDate = newChange.getDate() != null ? newChange.getDate() : target.getDate();
-                                        if (tagDate == null) {
-                                            // fall back to the jenkins time when the request is processed
-                                            tagDate = new Date();
-                                        }
-                                        head = new BitbucketTagSCMHead(newChange.getName(), tagDate.getTime());
-                                    } else {
-                                        head = new BranchSCMHead(newChange.getName());
-                                    }
-                                    result.put(head, new AbstractGitSCMSource.SCMRevisionImpl(head, target.getHash()));
-                                }
+                        SCMHead head = null;
+                        String eventType = newChange.getType();
+                        if ("tag".equals(eventType)) {
+                            // for BB Cloud date is valued only in case of annotated tag
+                            Date tagDate = newChange.getDate() != null ? newChange.getDate() : target.getDate();
+                            if (tagDate == null) {
+                                // fall back to the jenkins time when the request is processed
+                                tagDate = new Date();
                             }
-                            return result;
-                        }
-
-                        @Override
-                        public boolean isMatch(@NonNull SCM scm) {
-                            // TODO
-                            return false;
+                            head = new BitbucketTagSCMHead(newChange.getName(), tagDate.getTime());
+                        } else {
+                            head = new BranchSCMHead(newChange.getName());
                         }
-                    }, BitbucketSCMSource.getEventDelaySeconds(), TimeUnit.SECONDS);
+                        result.put(head, new AbstractGitSCMSource.SCMRevisionImpl(head, target.getHash()));
+                    }
                 }
+                return result;
+            }
+
+            @Override
+            public boolean isMatch(@NonNull SCM scm) {
+                // TODO
+                return false;
             }
+        });
+    }
+
+    private static String refOf(BitbucketPushEvent.Change change) {
+        Reference ref = change.getNew() != null ? change.getNew() : change.getOld();
+        return ref == null ? null : ref.getType() + ":" + ref.getName();
+    }
+
+    private static String selfLinkOf(BitbucketPushEvent push) {
+        Map<String, List<BitbucketHref>> links = push.getRepository().getLinks();
+        if (links != null && links.containsKey("self") && !links.get("self").isEmpty()) {
+            return links.get("self").get(0).getHref();
         }
+        return null;
     }
 }
@@ -46,7 +46,6 @@ import java.util.logging.Logger;
 import jenkins.scm.api.SCMHeadObserver;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceOwner;
-import jenkins.scm.api.SCMSourceOwners;
 
 /**
  * {@link SCMSourceOwner} item listener that traverse the list of {@link SCMSource} and register
@@ -234,8 +233,7 @@ public class WebhookAutoRegisterListener extends ItemListener {
     }
 
     private boolean isUsedSomewhereElse(SCMSourceOwner owner, String repoOwner, String repoName) {
-        Iterable<SCMSourceOwner> all = SCMSourceOwners.all();
-        for (SCMSourceOwner other : all) {
+        for (SCMSourceOwner other : BitbucketSCMSourceIndex.get().getOwners(repoOwner, repoName)) {
             if (owner != other) {
                 for(SCMSource otherSource : other.getSCMSources()) {
                     if (otherSource instanceof BitbucketSCMSource
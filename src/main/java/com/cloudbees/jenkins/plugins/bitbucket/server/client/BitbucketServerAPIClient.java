@@ -28,6 +28,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketListingQuery;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMirrorServer;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMirroredRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMirroredRepositoryDescriptor;
@@ -38,6 +39,10 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketTeam;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketWebHook;
 import com.cloudbees.jenkins.plugins.bitbucket.api.credentials.BitbucketUsernamePasswordAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.avatars.AvatarCacheSource.AvatarImage;
+import com.cloudbees.jenkins.plugins.bitbucket.client.CommitStore;
+import com.cloudbees.jenkins.plugins.bitbucket.client.ConditionalRequestCache;
+import com.cloudbees.jenkins.plugins.bitbucket.client.PagedIterable;
+import com.cloudbees.jenkins.plugins.bitbucket.client.RateLimitDeadline;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketServerEndpoint;
@@ -61,30 +66,49 @@ import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredenti
 import com.damnhandy.uri.template.UriTemplate;
 import com.damnhandy.uri.template.impl.Operator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Main;
 import hudson.ProxyConfiguration;
 import hudson.Util;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -117,8 +141,6 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.StandardHttpRequestRetryHandler;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.kohsuke.accmod.Restricted;
@@ -168,6 +190,15 @@ public class BitbucketServerAPIClient implements BitbucketApi {
     private static final int API_RATE_LIMIT_STATUS_CODE = 429;
     private static final Duration API_RATE_LIMIT_INITIAL_SLEEP = Main.isUnitTest ? Duration.ofMillis(100) : Duration.ofSeconds(5);
     private static final Duration API_RATE_LIMIT_MAX_SLEEP = Duration.ofMinutes(30);
+    private static final ConditionalRequestCache validatedResponses = new ConditionalRequestCache();
+    static final PullRequestRefreshLedger refreshedPullRequests = new PullRequestRefreshLedger();
+
+    /**
+     * How many pages of a listing are requested concurrently once the first page has revealed the page size,
+     * {@code 0} to request them one after another.
+     */
+    static /*mostly final*/ int pagePrefetch =
+            Math.max(0, Integer.getInteger(BitbucketServerAPIClient.class.getName() + ".pagePrefetch", 0));
 
     /**
      * Repository owner.
@@ -190,7 +221,10 @@ public class BitbucketServerAPIClient implements BitbucketApi {
      */
     private final BitbucketAuthenticator authenticator;
 
-    private HttpClientContext context;
+    /**
+     * The context of the request being prepared by the current thread, as pages may be fetched concurrently.
+     */
+    private final ThreadLocal<HttpClientContext> context = new ThreadLocal<>();
 
     private final String baseURL;
 
@@ -219,6 +253,16 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         this.webhookImplementation = requireNonNull(webhookImplementation);
     }
 
+    /**
+     * Returns the URL of the Bitbucket Server this client connects to.
+     *
+     * @return the server URL, without trailing slash.
+     */
+    @NonNull
+    public String getServerUrl() {
+        return baseURL;
+    }
+
     /**
      * Bitbucket Server manages two top level entities, owner and/or project.
      * Only one of them makes sense for a specific client object.
@@ -264,6 +308,44 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         return getPullRequests(template);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketServerPullRequest> iteratePullRequests() throws IOException, InterruptedException {
+        return iteratePullRequests(BitbucketListingQuery.ALL);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Iterable<BitbucketServerPullRequest> iteratePullRequests(@NonNull BitbucketListingQuery query)
+            throws IOException, InterruptedException {
+        BitbucketServerEndpoint endpoint = (BitbucketServerEndpoint) BitbucketEndpointConfiguration.get().
+            findEndpoint(this.baseURL, BitbucketServerEndpoint.class).orElse(null);
+        UriTemplate template = UriTemplate
+                .fromTemplate(API_PULL_REQUESTS_PATH)
+                .set("owner", getUserCentricOwner())
+                .set("repo", repositoryName);
+        if (query.getExactName() != null) {
+            // only the pull requests into that branch
+            template.set("at", "refs/heads/" + query.getExactName()).set("direction", "incoming");
+        }
+        if (isCallChanges(endpoint)) {
+            // the pull requests are requested again after the changes of each pull request were called
+            return getPullRequests(template);
+        }
+        return getPagedResources(template, BitbucketServerPullRequests.class, pullRequests -> {
+            pullRequests.removeIf(this::shouldIgnore);
+            for (BitbucketServerPullRequest pullRequest : setupPullRequests(pullRequests, endpoint)) {
+                recordRefresh(pullRequest);
+            }
+        });
+    }
+
     @NonNull
     public List<BitbucketServerPullRequest> getOutgoingOpenPullRequests(String fromRef) throws IOException, InterruptedException {
         UriTemplate template = UriTemplate
@@ -297,45 +379,190 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         BitbucketServerEndpoint endpoint = (BitbucketServerEndpoint) BitbucketEndpointConfiguration.get().
             findEndpoint(this.baseURL, BitbucketServerEndpoint.class).orElse(null);
 
-        for (BitbucketServerPullRequest pullRequest : pullRequests) {
-            setupPullRequest(pullRequest, endpoint);
-        }
+        List<BitbucketServerPullRequest> refreshed = setupPullRequests(pullRequests, endpoint);
 
-        if (endpoint != null) {
+        if (!refreshed.isEmpty() && isCallChanges(endpoint)) {
             // Get PRs again as revisions could be changed by other events during setupPullRequest
-            if (endpoint.isCallChanges() && BitbucketServerVersion.VERSION_7.equals(endpoint.getServerVersion())) {
-                pullRequests = getResources(template, BitbucketServerPullRequests.class);
-                pullRequests.removeIf(this::shouldIgnore);
+            pullRequests = getPullRequestsAgain(template, pullRequests, refreshed);
+        } else {
+            for (BitbucketServerPullRequest pullRequest : refreshed) {
+                recordRefresh(pullRequest);
             }
         }
 
         return pullRequests;
     }
 
-    private void setupPullRequest(BitbucketServerPullRequest pullRequest, BitbucketServerEndpoint endpoint) throws IOException, InterruptedException {
-        // set commit closure to make commit information available when needed, in a similar way to when request branches
-        setupClosureForPRBranch(pullRequest);
+    /**
+     * Gets the pull requests whose references were refreshed again, either one by one or, if that takes more
+     * requests, with the whole listing.
+     *
+     * @param template the listing template
+     * @param pullRequests the pull requests listed
+     * @param refreshed the pull requests whose references were refreshed
+     * @return the pull requests, with the refreshed ones as they are now
+     */
+    private List<BitbucketServerPullRequest> getPullRequestsAgain(UriTemplate template,
+                                                                   List<BitbucketServerPullRequest> pullRequests,
+                                                                   List<BitbucketServerPullRequest> refreshed)
+        throws IOException, InterruptedException {
+        Map<String, BitbucketServerPullRequest> previous = new HashMap<>();
+        for (BitbucketServerPullRequest pullRequest : pullRequests) {
+            previous.put(pullRequest.getId(), pullRequest);
+        }
+        Set<String> refreshedIds = new HashSet<>();
+        for (BitbucketServerPullRequest pullRequest : refreshed) {
+            refreshedIds.add(pullRequest.getId());
+        }
+        List<BitbucketServerPullRequest> result;
+        int pages = Math.max(1, (pullRequests.size() + DEFAULT_PAGE_LIMIT - 1) / DEFAULT_PAGE_LIMIT);
+        if (refreshed.size() > pages) {
+            result = getResources(template, BitbucketServerPullRequests.class);
+            result.removeIf(this::shouldIgnore);
+        } else {
+            Map<String, BitbucketServerPullRequest> current = new HashMap<>();
+            for (BitbucketServerPullRequest pullRequest : refreshed) {
+                try {
+                    current.put(pullRequest.getId(), fetchPullRequest(Integer.valueOf(pullRequest.getId())));
+                } catch (FileNotFoundException e) {
+                    // gone meanwhile, as it would be from the whole listing
+                    current.put(pullRequest.getId(), null);
+                }
+            }
+            result = new ArrayList<>(pullRequests.size());
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                BitbucketServerPullRequest now = current.getOrDefault(pullRequest.getId(), pullRequest);
+                if (now != null && !shouldIgnore(now)) {
+                    result.add(now);
+                }
+            }
+        }
+        for (BitbucketServerPullRequest pullRequest : result) {
+            BitbucketServerPullRequest before = previous.get(pullRequest.getId());
+            if (before == pullRequest) {
+                continue;
+            }
+            setupClosureForPRBranch(pullRequest);
+            if (before != null) {
+                pullRequest.setCanMerge(before.isCanMerge());
+                if (refreshedIds.contains(pullRequest.getId())) {
+                    recordRefresh(pullRequest);
+                }
+            }
+        }
+        return result;
+    }
 
-        if (endpoint != null) {
-            // This is required for Bitbucket Server to update the refs/pull-requests/* references
-            // See https://community.atlassian.com/t5/Bitbucket-questions/Change-pull-request-refs-after-Commit-instead-of-after-Approval/qaq-p/194702#M6829
-            if (endpoint.isCallCanMerge()) {
+    /**
+     * Sets up the pull requests, making the calls that refresh their references in parallel.
+     *
+     * @param pullRequests the pull requests to set up
+     * @param endpoint the endpoint of this client
+     * @return the pull requests whose references were refreshed, in order
+     */
+    private List<BitbucketServerPullRequest> setupPullRequests(List<BitbucketServerPullRequest> pullRequests,
+                                                               @CheckForNull BitbucketServerEndpoint endpoint)
+        throws IOException, InterruptedException {
+        List<BitbucketServerPullRequest> refreshed = new ArrayList<>();
+        if (pullRequests.size() < 2 || PullRequestSetupExecutor.THREADS <= 0) {
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                if (setupPullRequest(pullRequest, endpoint)) {
+                    refreshed.add(pullRequest);
+                }
+            }
+            return refreshed;
+        }
+        List<Future<Boolean>> calls = new ArrayList<>(pullRequests.size());
+        try {
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                calls.add(PullRequestSetupExecutor.INSTANCE.submit(() -> setupPullRequest(pullRequest, endpoint)));
+            }
+            for (int i = 0; i < calls.size(); i++) {
+                boolean called;
                 try {
-                    pullRequest.setCanMerge(getPullRequestCanMergeById(pullRequest.getId()));
-                } catch (BitbucketRequestException e) {
-                    // see JENKINS-65718 https://docs.atlassian.com/bitbucket-server/rest/7.2.1/bitbucket-rest.html#errors-and-validation
-                    // in this case we just say cannot merge this one
-                    if(e.getHttpCode()==409){
-                        pullRequest.setCanMerge(false);
-                    } else {
-                        throw e;
+                    called = calls.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
                     }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+                if (called) {
+                    refreshed.add(pullRequests.get(i));
                 }
             }
-            if (endpoint.isCallChanges() && BitbucketServerVersion.VERSION_7.equals(endpoint.getServerVersion())) {
-                callPullRequestChangesById(pullRequest.getId());
+        } finally {
+            for (Future<Boolean> call : calls) {
+                call.cancel(true);
             }
         }
+        return refreshed;
+    }
+
+    /**
+     * Sets up the pull request and, if the endpoint asks for it, makes the calls that refresh its references unless
+     * they were already made for its current commits.
+     *
+     * @return {@code true} if the calls were made
+     */
+    private boolean setupPullRequest(BitbucketServerPullRequest pullRequest, @CheckForNull BitbucketServerEndpoint endpoint) throws IOException, InterruptedException {
+        // set commit closure to make commit information available when needed, in a similar way to when request branches
+        setupClosureForPRBranch(pullRequest);
+
+        if (endpoint == null || !(endpoint.isCallCanMerge() || isCallChanges(endpoint))) {
+            return false;
+        }
+        PullRequestRefreshLedger.Entry refresh = refreshedPullRequests.get(refreshKey(pullRequest), refreshCommits(pullRequest));
+        if (refresh != null) {
+            if (endpoint.isCallCanMerge()) {
+                pullRequest.setCanMerge(refresh.getCanMerge());
+            }
+            return false;
+        }
+        // This is required for Bitbucket Server to update the refs/pull-requests/* references
+        // See https://community.atlassian.com/t5/Bitbucket-questions/Change-pull-request-refs-after-Commit-instead-of-after-Approval/qaq-p/194702#M6829
+        if (endpoint.isCallCanMerge()) {
+            try {
+                pullRequest.setCanMerge(getPullRequestCanMergeById(pullRequest.getId()));
+            } catch (BitbucketRequestException e) {
+                // see JENKINS-65718 https://docs.atlassian.com/bitbucket-server/rest/7.2.1/bitbucket-rest.html#errors-and-validation
+                // in this case we just say cannot merge this one
+                if(e.getHttpCode()==409){
+                    pullRequest.setCanMerge(false);
+                } else {
+                    throw e;
+                }
+            }
+        }
+        if (isCallChanges(endpoint)) {
+            callPullRequestChangesById(pullRequest.getId());
+        }
+        return true;
+    }
+
+    private static boolean isCallChanges(@CheckForNull BitbucketServerEndpoint endpoint) {
+        return endpoint != null
+                && endpoint.isCallChanges() && BitbucketServerVersion.VERSION_7.equals(endpoint.getServerVersion());
+    }
+
+    private void recordRefresh(BitbucketServerPullRequest pullRequest) {
+        refreshedPullRequests.put(refreshKey(pullRequest), refreshCommits(pullRequest), pullRequest.isCanMerge());
+    }
+
+    private String refreshKey(BitbucketPullRequest pullRequest) {
+        return baseURL + '|' + getUserCentricOwner() + '/' + repositoryName + '#' + pullRequest.getId();
+    }
+
+    private static String refreshCommits(BitbucketPullRequest pullRequest) {
+        return PullRequestRefreshLedger.commits(pullRequest.getSource().getBranch().getRawNode(),
+                pullRequest.getDestination().getBranch().getRawNode());
     }
 
     /**
@@ -415,6 +642,15 @@ public class BitbucketServerAPIClient implements BitbucketApi {
     @Override
     @NonNull
     public BitbucketPullRequest getPullRequestById(@NonNull Integer id) throws IOException, InterruptedException {
+        BitbucketServerPullRequest pr = fetchPullRequest(id);
+        if (setupPullRequest(pr, (BitbucketServerEndpoint) BitbucketEndpointConfiguration.get().
+            findEndpoint(this.baseURL, BitbucketServerEndpoint.class).orElse(null))) {
+            recordRefresh(pr);
+        }
+        return pr;
+    }
+
+    private BitbucketServerPullRequest fetchPullRequest(@NonNull Integer id) throws IOException, InterruptedException {
         String url = UriTemplate
                 .fromTemplate(API_PULL_REQUEST_PATH)
                 .set("owner", getUserCentricOwner())
@@ -425,8 +661,6 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         try {
             BitbucketServerPullRequest pr = JsonParser.toJava(response, BitbucketServerPullRequest.class);
             setupClosureForPRBranch(pr);
-            setupPullRequest(pr, (BitbucketServerEndpoint) BitbucketEndpointConfiguration.get().
-                findEndpoint(this.baseURL, BitbucketServerEndpoint.class).orElse(null));
             return pr;
         } catch (IOException e) {
             throw new IOException("I/O error when accessing URL: " + url, e);
@@ -597,6 +831,25 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         return getServerBranches(API_TAGS_PATH);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @NonNull
+    public Iterable<BitbucketServerBranch> iterateTags() {
+        return getPagedResources(branchesTemplate(API_TAGS_PATH), BitbucketServerBranches.class, this::setupCommitClosures);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @NonNull
+    public Iterable<BitbucketServerBranch> iterateTags(@NonNull BitbucketListingQuery query) {
+        return getPagedResources(branchesTemplate(API_TAGS_PATH, API_TAGS_FILTERED_PATH, query),
+                BitbucketServerBranches.class, this::setupCommitClosures);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -614,20 +867,54 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         return getServerBranches(API_BRANCHES_PATH);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @NonNull
+    public Iterable<BitbucketServerBranch> iterateBranches() {
+        return getPagedResources(branchesTemplate(API_BRANCHES_PATH), BitbucketServerBranches.class, this::setupCommitClosures);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @NonNull
+    public Iterable<BitbucketServerBranch> iterateBranches(@NonNull BitbucketListingQuery query) {
+        return getPagedResources(branchesTemplate(API_BRANCHES_PATH, API_BRANCHES_FILTERED_PATH, query),
+                BitbucketServerBranches.class, this::setupCommitClosures);
+    }
+
     private List<BitbucketServerBranch> getServerBranches(String apiPath) throws IOException, InterruptedException {
-        UriTemplate template = UriTemplate
+        List<BitbucketServerBranch> branches = getResources(branchesTemplate(apiPath), BitbucketServerBranches.class);
+        setupCommitClosures(branches);
+
+        return branches;
+    }
+
+    private UriTemplate branchesTemplate(String apiPath) {
+        return UriTemplate
                 .fromTemplate(apiPath)
                 .set("owner", getUserCentricOwner())
                 .set("repo", repositoryName);
+    }
 
-        List<BitbucketServerBranch> branches = getResources(template, BitbucketServerBranches.class);
+    private UriTemplate branchesTemplate(String apiPath, String filteredApiPath, BitbucketListingQuery query) {
+        String fragment = query.getNameFragment();
+        if (fragment == null) {
+            return branchesTemplate(apiPath);
+        }
+        // filterText keeps the refs whose name contains the text
+        return branchesTemplate(filteredApiPath).set("filterText", fragment);
+    }
+
+    private void setupCommitClosures(List<BitbucketServerBranch> branches) {
         for (final BitbucketServerBranch branch : branches) {
             if (branch != null) {
                 branch.setCommitClosure(new CommitClosure(branch.getRawNode()));
             }
         }
-
-        return branches;
     }
 
     private BitbucketServerBranch getSingleTag(String tagName) throws IOException, InterruptedException {
@@ -670,8 +957,18 @@ public class BitbucketServerAPIClient implements BitbucketApi {
                 .set("repo", repositoryName)
                 .set("hash", hash)
                 .expand();
+        // a commit addressed by its full hash never changes
+        String key = CommitStore.isFullHash(hash)
+                ? "server:" + baseURL + "/" + getUserCentricOwner() + "/" + repositoryName + "@" + hash
+                : null;
         try {
-            String response = getRequest(url);
+            String response = key != null ? CommitStore.get().get(key) : null;
+            if (response == null) {
+                response = getRequest(url);
+                if (key != null) {
+                    CommitStore.get().put(key, response);
+                }
+            }
             return JsonParser.toJava(response, BitbucketServerCommit.class);
         } catch (IOException e) {
             throw new IOException("I/O error when accessing URL: " + url, e);
@@ -894,17 +1191,15 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
-            String url = template //
-                    .set("start", pageNumber) //
-                    .set("limit", limit) //
-                    .expand();
-            String response = getRequest(url);
-            try {
-                page = JsonParser.toJava(response, clazz);
-            } catch (IOException e) {
-                throw new IOException("I/O error when parsing response from URL: " + url, e);
+            if (pagePrefetch > 0 && pageNumber > 0) {
+                page = prefetchPages(template, clazz, pageNumber, limit, resources);
+            } else {
+                String url = template //
+                        .set("start", pageNumber) //
+                        .set("limit", limit) //
+                        .expand();
+                page = getPage(url, clazz, resources::add);
             }
-            resources.addAll(page.getValues());
 
             limit = page.getLimit();
             pageNumber = page.getNextPageStart();
@@ -927,17 +1222,14 @@ public class BitbucketServerAPIClient implements BitbucketApi {
                 .set("start", pageNumber) //
                 .set("limit", limit) //
                 .expand();
-            String response = getRequest(url);
-            try {
-                page = JsonParser.toJava(response, clazz);
-            } catch (IOException e) {
-                throw new IOException("I/O error when parsing response from URL: " + url, e);
-            }
-
-            for(V item : page.getValues()) {
-                if(filter.test(item)) {
-                    return item;
+            List<V> matches = new ArrayList<>(1);
+            page = getPage(url, clazz, item -> {
+                if (matches.isEmpty() && filter.test(item)) {
+                    matches.add(item);
                 }
+            });
+            if (!matches.isEmpty()) {
+                return matches.get(0);
             }
 
             limit = page.getLimit();
@@ -948,45 +1240,211 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         return null;
     }
 
+    /**
+     * Pages through the listing only as far as the returned iterable is iterated, see {@link PagedIterable}.
+     *
+     * @param setup prepares the values of each page before they are handed out
+     */
+    private <V> PagedIterable<V> getPagedResources(UriTemplate template, Class<? extends PagedApiResponse<V>> clazz, PageSetup<V> setup) {
+        return new PagedIterable<>(new PagedIterable.Pages<V>() {
+            private Integer start = 0;
+            private Integer limit = DEFAULT_PAGE_LIMIT;
+
+            @Override
+            public List<V> next() throws IOException, InterruptedException {
+                if (start == null) {
+                    return null;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                String url = template //
+                        .set("start", start) //
+                        .set("limit", limit) //
+                        .expand();
+                List<V> values = new ArrayList<>();
+                PagedApiResponse<V> page = getPage(url, clazz, values::add);
+                start = page.isLastPage() ? null : page.getNextPageStart();
+                limit = page.getLimit();
+                setup.accept(values);
+                return values;
+            }
+        });
+    }
+
+    /**
+     * Prepares the values of a page.
+     */
+    @FunctionalInterface
+    private interface PageSetup<V> {
+        void accept(List<V> values) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Requests up to {@link #pagePrefetch} pages ahead, starting at the given offset, and appends their values in page
+     * order. Stops at the last page, or as soon as a page does not continue where the next requested one starts (the
+     * listing changed meanwhile) so that the caller resumes from the offset given by the server.
+     *
+     * @return the last page consumed
+     */
+    private <V> PagedApiResponse<V> prefetchPages(UriTemplate template, Class<? extends PagedApiResponse<V>> clazz,
+                                                  int start, int limit, List<V> resources) throws IOException, InterruptedException {
+        Deque<Future<PrefetchedPage<V>>> inFlight = new ArrayDeque<>();
+        int nextStart = start;
+        try {
+            while (true) {
+                while (inFlight.size() < pagePrefetch) {
+                    String url = template //
+                            .set("start", nextStart) //
+                            .set("limit", limit) //
+                            .expand();
+                    inFlight.add(PagePrefetchExecutor.INSTANCE.submit(() -> {
+                        List<V> values = new ArrayList<>();
+                        return new PrefetchedPage<>(getPage(url, clazz, values::add), values);
+                    }));
+                    nextStart += limit;
+                }
+                PrefetchedPage<V> prefetched;
+                try {
+                    prefetched = inFlight.removeFirst().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+                resources.addAll(prefetched.values);
+                PagedApiResponse<V> page = prefetched.page;
+                int expectedStart = nextStart - inFlight.size() * limit;
+                if (page.isLastPage() || !Objects.equals(page.getLimit(), limit)
+                        || !Objects.equals(page.getNextPageStart(), expectedStart)) {
+                    return page;
+                }
+            }
+        } finally {
+            for (Future<PrefetchedPage<V>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static class PrefetchedPage<V> {
+        private final PagedApiResponse<V> page;
+        private final List<V> values;
+
+        PrefetchedPage(PagedApiResponse<V> page, List<V> values) {
+            this.page = page;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Lazily started pool shared by all clients to refresh the references of pull requests in parallel.
+     */
+    private static class PullRequestSetupExecutor {
+        private static final int THREADS =
+                Integer.getInteger(BitbucketServerAPIClient.class.getName() + ".pullRequestSetupThreads", 4);
+
+        private static final ExecutorService INSTANCE = new ThreadPoolExecutor(
+                0, Math.max(1, THREADS),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), BitbucketServerAPIClient.class.getName() + ".pullRequestSetup"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Lazily started pool shared by all clients to request pages ahead.
+     */
+    private static class PagePrefetchExecutor {
+        private static final ExecutorService INSTANCE = new ThreadPoolExecutor(
+                0, Math.max(1, Integer.getInteger(BitbucketServerAPIClient.class.getName() + ".pagePrefetchThreads", 10)),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), BitbucketServerAPIClient.class.getName() + ".pagePrefetch"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Reads one page of the given URL, handing its values to the consumer while they are parsed.
+     *
+     * @param url the page URL, relative to the server base URL
+     * @param clazz the page type
+     * @param consumer receives the values of the page
+     * @return the page, with its paging properties but without values
+     */
+    private <V> PagedApiResponse<V> getPage(String url, Class<? extends PagedApiResponse<V>> clazz, Consumer<V> consumer) throws IOException, InterruptedException {
+        JavaType pageType = JsonParser.mapper.constructType(clazz);
+        JavaType valueType = pageType.findTypeParameters(PagedApiResponse.class)[0];
+        return getRequest(new HttpGet(this.baseURL + url), content -> {
+            try {
+                return JsonParser.toJavaPage(content, pageType, valueType, consumer);
+            } catch (IOException e) {
+                throw new IOException("I/O error when parsing response from URL: " + url, e);
+            }
+        });
+    }
+
     protected String getRequest(String path) throws IOException, InterruptedException {
         HttpGet httpget = new HttpGet(this.baseURL + path);
         return getRequest(httpget);
     }
 
     private String getRequest(HttpGet httpget) throws IOException, InterruptedException {
+        return getRequest(httpget, IOUtils::toString);
+    }
+
+    /**
+     * Performs the GET request and hands the body of the {@code 200 OK} response to the reader. The body is streamed
+     * unless the response carries validators worth caching, in which case it is buffered into
+     * {@link #validatedResponses} first.
+     */
+    private <T> T getRequest(HttpGet httpget, ContentReader<T> reader) throws IOException, InterruptedException {
 
         if (authenticator != null) {
             authenticator.configureRequest(httpget);
         }
+        String cacheKey = ConditionalRequestCache.key(httpget.getURI().toString(), authenticator);
+        ConditionalRequestCache.Entry cached = validatedResponses.prepare(cacheKey, httpget);
 
-        try(CloseableHttpClient client = getHttpClient(httpget);
-                CloseableHttpResponse response = executeMethod(client, httpget)) {
-            String content;
-            long len = response.getEntity().getContentLength();
-            if (len == 0) {
-                content = "";
-            } else {
-                ByteArrayOutputStream buf;
-                if (len > 0 && len <= Integer.MAX_VALUE / 2) {
-                    buf = new ByteArrayOutputStream((int) len);
-                } else {
-                    buf = new ByteArrayOutputStream();
-                }
-                try (InputStream is = response.getEntity().getContent()) {
-                    IOUtils.copy(is, buf);
-                }
-                content = new String(buf.toByteArray(), StandardCharsets.UTF_8);
+        try (BitbucketServerHttpClientRegistry.Lease lease = getHttpClient(httpget);
+             CloseableHttpResponse response = executeMethod(lease.client(), httpget)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (cached != null && statusCode == HttpStatus.SC_NOT_MODIFIED) {
+                EntityUtils.consume(response.getEntity());
+                return reader.read(new StringReader(validatedResponses.replay(cached)));
             }
-            EntityUtils.consume(response.getEntity());
-            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                EntityUtils.consume(response.getEntity());
                 throw new FileNotFoundException("Request: " + httpget);
             }
-            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-                throw new BitbucketRequestException(response.getStatusLine().getStatusCode(),
-                        "HTTP request error. Status: " + response.getStatusLine().getStatusCode()
+            if (statusCode != HttpStatus.SC_OK) {
+                EntityUtils.consume(response.getEntity());
+                throw new BitbucketRequestException(statusCode,
+                        "HTTP request error. Status: " + statusCode
                                 + ": " + response.getStatusLine().getReasonPhrase() + ".\n" + response);
             }
-            return content;
+            T result;
+            if (response.getEntity().getContentLength() == 0) {
+                validatedResponses.store(cacheKey, response, "");
+                result = reader.read(new StringReader(""));
+            } else if (validatedResponses.accepts(response)) {
+                String content = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                validatedResponses.store(cacheKey, response, content);
+                result = reader.read(new StringReader(content));
+            } else {
+                validatedResponses.forget(cacheKey);
+                try (Reader content = new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8)) {
+                    result = reader.read(content);
+                }
+            }
+            EntityUtils.consume(response.getEntity());
+            return result;
         } catch (BitbucketRequestException | FileNotFoundException e) {
             throw e;
         } catch (IOException e) {
@@ -995,6 +1453,15 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             httpget.releaseConnection();
         }
     }
+
+    /**
+     * Consumes the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface ContentReader<T> {
+        T read(Reader content) throws IOException;
+    }
+
     private BufferedImage getImageRequest(String path) throws IOException, InterruptedException {
         HttpGet httpget = new HttpGet(this.baseURL + path);
 
@@ -1002,8 +1469,8 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             authenticator.configureRequest(httpget);
         }
 
-        try (CloseableHttpClient client = getHttpClient(httpget);
-                CloseableHttpResponse response = executeMethod(client, httpget)) {
+        try (BitbucketServerHttpClientRegistry.Lease lease = getHttpClient(httpget);
+             CloseableHttpResponse response = executeMethod(lease.client(), httpget)) {
             BufferedImage content;
             long len = response.getEntity().getContentLength();
             if (len == 0) {
@@ -1039,16 +1506,12 @@ public class BitbucketServerAPIClient implements BitbucketApi {
     }
 
     /**
-     * Create HttpClient from given host/port
-     * @param request the {@link HttpRequestBase} for which an HttpClient will be created
-     * @return CloseableHttpClient
+     * Leases the shared HttpClient for the host of the given request.
+     * The returned client is pooled across requests, the caller closes the lease once the request is over.
+     * @param request the {@link HttpRequestBase} for which an HttpClient will be used
+     * @return the lease of the shared CloseableHttpClient
      */
-    private CloseableHttpClient getHttpClient(final HttpRequestBase request) {
-        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-        httpClientBuilder.useSystemProperties();
-        httpClientBuilder.setRetryHandler(new StandardHttpRequestRetryHandler());
-        httpClientBuilder.disableCookieManagement();
-
+    private BitbucketServerHttpClientRegistry.Lease getHttpClient(final HttpRequestBase request) {
         RequestConfig.Builder requestConfig = RequestConfig.custom();
         String connectTimeout = System.getProperty("http.connect.timeout", "10");
         requestConfig.setConnectTimeout(Integer.parseInt(connectTimeout) * 1000);
@@ -1060,19 +1523,20 @@ public class BitbucketServerAPIClient implements BitbucketApi {
 
         final String host = getMethodHost(request);
 
+        context.remove();
         if (authenticator != null) {
-            authenticator.configureBuilder(httpClientBuilder);
-
-            context = HttpClientContext.create();
-            authenticator.configureContext(context, HttpHost.create(host));
+            HttpClientContext requestContext = HttpClientContext.create();
+            authenticator.configureContext(requestContext, HttpHost.create(host));
+            context.set(requestContext);
         }
 
-        setClientProxyParams(host, httpClientBuilder);
+        HttpHost proxyHost = setClientProxyParams(host);
 
-        return httpClientBuilder.build();
+        return BitbucketServerHttpClientRegistry.lease(host, proxyHost, authenticator);
     }
 
-    private void setClientProxyParams(String host, HttpClientBuilder builder) {
+    @CheckForNull
+    private HttpHost setClientProxyParams(String host) {
         Jenkins jenkins = Jenkins.get();
         ProxyConfiguration proxyConfig = null;
         if (jenkins != null) {
@@ -1091,7 +1555,7 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         if (proxy.type() != Proxy.Type.DIRECT) {
             final InetSocketAddress proxyAddress = (InetSocketAddress)proxy.address();
             LOGGER.log(Level.FINE, "Jenkins proxy: {0}", proxy.address());
-            builder.setProxy(new HttpHost(proxyAddress.getHostName(), proxyAddress.getPort()));
+            HttpHost proxyHost = new HttpHost(proxyAddress.getHostName(), proxyAddress.getPort());
             String username = proxyConfig.getUserName();
             String password = proxyConfig.getPassword();
             if (username != null && !"".equals(username.trim())) {
@@ -1100,11 +1564,14 @@ public class BitbucketServerAPIClient implements BitbucketApi {
                 credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
                 AuthCache authCache = new BasicAuthCache();
                 authCache.put(HttpHost.create(proxyAddress.getHostName()), new BasicScheme());
-                context = HttpClientContext.create();
-                context.setCredentialsProvider(credentialsProvider);
-                context.setAuthCache(authCache);
+                HttpClientContext requestContext = HttpClientContext.create();
+                requestContext.setCredentialsProvider(credentialsProvider);
+                requestContext.setAuthCache(authCache);
+                context.set(requestContext);
             }
+            return proxyHost;
         }
+        return null;
     }
 
     private int getRequestStatus(String path) throws IOException, InterruptedException {
@@ -1113,8 +1580,8 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             authenticator.configureRequest(httpget);
         }
 
-        try(CloseableHttpClient client = getHttpClient(httpget);
-                CloseableHttpResponse response = executeMethod(client, httpget)) {
+        try (BitbucketServerHttpClientRegistry.Lease lease = getHttpClient(httpget);
+             CloseableHttpResponse response = executeMethod(lease.client(), httpget)) {
             EntityUtils.consume(response.getEntity());
             return response.getStatusLine().getStatusCode();
         } finally {
@@ -1158,8 +1625,8 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             authenticator.configureRequest(request);
         }
 
-        try(CloseableHttpClient client = getHttpClient(request);
-                CloseableHttpResponse response = executeMethod(client, request)) {
+        try (BitbucketServerHttpClientRegistry.Lease lease = getHttpClient(request);
+             CloseableHttpResponse response = executeMethod(lease.client(), request)) {
             if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NO_CONTENT) {
                 EntityUtils.consume(response.getEntity());
                 // 204, no content
@@ -1218,6 +1685,23 @@ public class BitbucketServerAPIClient implements BitbucketApi {
 
     @Override
     public Iterable<SCMFile> getDirectoryContent(BitbucketSCMFile directory) throws IOException, InterruptedException {
+        return getDirectoryContent(directory, false);
+    }
+
+    @Override
+    public Iterable<SCMFile> getSmallDirectoryContent(BitbucketSCMFile directory) throws IOException, InterruptedException {
+        return getDirectoryContent(directory, true);
+    }
+
+    /**
+     * Lists the children of the given folder.
+     *
+     * @param firstPageOnly whether to give up rather than request a second page.
+     * @return the children or {@code null} if there are more than a page of them and only the first was requested.
+     */
+    @CheckForNull
+    private List<SCMFile> getDirectoryContent(BitbucketSCMFile directory, boolean firstPageOnly)
+            throws IOException, InterruptedException {
         List<SCMFile> files = new ArrayList<>();
         int start=0;
         String branchOrHash = directory.getHash().contains("+") ? directory.getRef() : directory.getHash();
@@ -1235,14 +1719,19 @@ public class BitbucketServerAPIClient implements BitbucketApi {
         Map page = (Map) content.get("children");
         List<Map> values = (List<Map>) page.get("values");
         collectFileAndDirectories(directory, values, files);
+        if (firstPageOnly && !(boolean) page.get("isLastPage")) {
+            return null;
+        }
         while (!(boolean)page.get("isLastPage")){
-            start += (int) content.get("size");
+            start = (int) page.get("nextPageStart");
             url = template
                     .set("start", start)
                     .expand();
             response = getRequest(url);
             content = JsonParser.mapper.readValue(response, new TypeReference<Map<String,Object>>(){});
             page = (Map) content.get("children");
+            values = (List<Map>) page.get("values");
+            collectFileAndDirectories(directory, values, files);
         }
         return files;
     }
@@ -1306,12 +1795,13 @@ public class BitbucketServerAPIClient implements BitbucketApi {
     }
 
     private CloseableHttpResponse executeMethod(CloseableHttpClient client, HttpRequestBase httpMethod) throws IOException, InterruptedException {
-        CloseableHttpResponse response = executeMethodNoRetry(client, httpMethod, context);
+        CloseableHttpResponse response = executeMethodNoRetry(client, httpMethod, context.get());
         Instant start = Instant.now();
         Instant forcedEnd = start.plus(API_RATE_LIMIT_MAX_SLEEP);
         Duration sleepDuration = API_RATE_LIMIT_INITIAL_SLEEP;
         while (response.getStatusLine().getStatusCode() == API_RATE_LIMIT_STATUS_CODE
-                && Instant.now().plus(sleepDuration).isBefore(forcedEnd)) {
+                && Instant.now().plus(sleepDuration).isBefore(forcedEnd)
+                && RateLimitDeadline.allows(sleepDuration.toMillis())) {
             response.close();
             httpMethod.releaseConnection();
             /*
@@ -1325,7 +1815,7 @@ public class BitbucketServerAPIClient implements BitbucketApi {
             // Duration increases exponentially: 5s, 7s, 10s, 15s, 22s, ... 6m6s, 9m9s.
             // We will retry at most 13 times and sleep for roughly 27 minutes.
             sleepDuration = Duration.ofSeconds((int)(sleepDuration.getSeconds() * 1.5));
-            response = executeMethodNoRetry(client, httpMethod, context);
+            response = executeMethodNoRetry(client, httpMethod, context.get());
         }
         return response;
     }
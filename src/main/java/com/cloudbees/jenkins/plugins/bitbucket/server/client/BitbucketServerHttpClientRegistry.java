@@ -0,0 +1,256 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.http.HttpHost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.StandardHttpRequestRetryHandler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Keeps one pooled {@link CloseableHttpClient} for each Bitbucket Server endpoint, proxy and credentials
+ * combination so that connections (and their TLS sessions) are reused across requests and across
+ * {@link BitbucketServerAPIClient} instances.
+ * <p>
+ * Clients are told apart by the fingerprint of the credentials, not by their id, as some authenticators bake the
+ * credentials in the client. Only the most recently used clients are kept, the others are closed once the requests
+ * still using them are over.
+ * <p>
+ * Clients are handed out in a {@link Lease} that the caller closes once its request is over. The clients themselves
+ * are shared and must never be closed by the caller.
+ */
+final class BitbucketServerHttpClientRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(BitbucketServerHttpClientRegistry.class.getName());
+
+    /**
+     * Maximum number of concurrent connections to a single route.
+     */
+    private static final int MAX_CONNECTIONS_PER_ROUTE =
+            Math.max(1, Integer.getInteger(BitbucketServerHttpClientRegistry.class.getName() + ".maxConnectionsPerRoute", 20));
+
+    /**
+     * Maximum number of concurrent connections for a single client.
+     */
+    private static final int MAX_CONNECTIONS_TOTAL =
+            Math.max(MAX_CONNECTIONS_PER_ROUTE, Integer.getInteger(BitbucketServerHttpClientRegistry.class.getName() + ".maxConnectionsTotal", 40));
+
+    /**
+     * How long an idle connection is kept alive, when the server does not send a {@code Keep-Alive} header.
+     */
+    private static final int KEEP_ALIVE_SECONDS =
+            Math.max(1, Integer.getInteger(BitbucketServerHttpClientRegistry.class.getName() + ".keepAliveSeconds", 30));
+
+    /**
+     * Maximum number of clients kept, the least recently used ones are closed beyond.
+     */
+    private static final int MAX_CLIENTS =
+            Math.max(1, Integer.getInteger(BitbucketServerHttpClientRegistry.class.getName() + ".maxClients", 50));
+
+    private static final Map<String, Holder> clients = new LinkedHashMap<>(16, 0.75f, true);
+
+    private BitbucketServerHttpClientRegistry() {
+    }
+
+    /**
+     * Leases the shared client for the given endpoint, creating it on first use.
+     *
+     * @param host the scheme and authority of the Bitbucket Server endpoint.
+     * @param proxy the proxy to go through or {@code null} for a direct connection.
+     * @param authenticator the (optional) authenticator, it may customise the connection setup.
+     * @return the lease of the shared client, to be closed once the request is over.
+     */
+    @NonNull
+    static Lease lease(@NonNull String host, @CheckForNull HttpHost proxy,
+                       @CheckForNull BitbucketAuthenticator authenticator) {
+        String key = key(host, proxy, authenticator);
+        List<CloseableHttpClient> evicted = new ArrayList<>();
+        Holder holder;
+        synchronized (clients) {
+            holder = clients.get(key);
+            if (holder == null) {
+                holder = new Holder(create(proxy, authenticator));
+                clients.put(key, holder);
+                Iterator<Holder> iterator = clients.values().iterator();
+                while (clients.size() > MAX_CLIENTS) {
+                    retire(iterator.next(), evicted);
+                    iterator.remove();
+                }
+            }
+            holder.leases++;
+        }
+        close(evicted);
+        return new Lease(holder);
+    }
+
+    /**
+     * Forgets all the shared clients, any further request will create new ones. Each client is closed once the
+     * requests still using it are over.
+     */
+    static void clear() {
+        List<CloseableHttpClient> evicted = new ArrayList<>();
+        synchronized (clients) {
+            for (Holder holder : clients.values()) {
+                retire(holder, evicted);
+            }
+            clients.clear();
+        }
+        close(evicted);
+    }
+
+    static int size() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    /**
+     * Marks a client as no longer handed out, and collects it for closing if no request uses it.
+     */
+    private static void retire(Holder holder, List<CloseableHttpClient> evicted) {
+        holder.retired = true;
+        if (holder.leases == 0) {
+            evicted.add(holder.client);
+        }
+    }
+
+    private static void release(Holder holder) {
+        List<CloseableHttpClient> evicted = new ArrayList<>();
+        synchronized (clients) {
+            holder.leases--;
+            if (holder.retired && holder.leases == 0) {
+                evicted.add(holder.client);
+            }
+        }
+        close(evicted);
+    }
+
+    private static void close(List<CloseableHttpClient> evicted) {
+        for (CloseableHttpClient client : evicted) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not close HTTP client", e);
+            }
+        }
+    }
+
+    private static String key(String host, HttpHost proxy, BitbucketAuthenticator authenticator) {
+        StringBuilder key = new StringBuilder(host);
+        key.append("::").append(proxy == null ? "<direct>" : proxy.toHostString());
+        if (authenticator != null) {
+            key.append("::").append(authenticator.getClass().getName()).append("::").append(authenticator.getFingerprint());
+        } else {
+            key.append("::<anonymous>");
+        }
+        return key.toString();
+    }
+
+    private static CloseableHttpClient create(HttpHost proxy, BitbucketAuthenticator authenticator) {
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
+        httpClientBuilder.useSystemProperties();
+        httpClientBuilder.setRetryHandler(new StandardHttpRequestRetryHandler());
+        httpClientBuilder.disableCookieManagement();
+        httpClientBuilder.setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        httpClientBuilder.setMaxConnTotal(MAX_CONNECTIONS_TOTAL);
+        httpClientBuilder.setKeepAliveStrategy((response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : MILLISECONDS.convert(KEEP_ALIVE_SECONDS, SECONDS);
+        });
+        httpClientBuilder.evictExpiredConnections();
+        httpClientBuilder.evictIdleConnections(KEEP_ALIVE_SECONDS, SECONDS);
+
+        if (authenticator != null) {
+            authenticator.configureBuilder(httpClientBuilder);
+        }
+        if (proxy != null) {
+            httpClientBuilder.setProxy(proxy);
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    /**
+     * A shared client and the number of requests using it, guarded by {@link #clients}.
+     */
+    private static final class Holder {
+        private final CloseableHttpClient client;
+        private int leases;
+        private boolean retired;
+
+        Holder(CloseableHttpClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * The use of a shared client by a request. Closing the lease, not the client, tells the registry that the request
+     * is over.
+     */
+    static final class Lease implements Closeable {
+        private final Holder holder;
+        private boolean released;
+
+        private Lease(Holder holder) {
+            this.holder = holder;
+        }
+
+        /**
+         * Returns the leased client.
+         *
+         * @return the shared client, which must not be closed.
+         */
+        @NonNull
+        CloseableHttpClient client() {
+            return holder.client;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(holder);
+        }
+    }
+}
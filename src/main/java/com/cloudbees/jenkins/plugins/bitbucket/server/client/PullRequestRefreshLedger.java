@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers, per pull request, the source and target commits for which the calls refreshing its references
+ * ({@code merge} and {@code changes}) were last made, so that the following scans only make them again once either
+ * side of the pull request moved.
+ * <p>
+ * Entries expire after a while, so that the references get refreshed again even if the listing missed an update.
+ */
+class PullRequestRefreshLedger {
+
+    /**
+     * How long the refresh of a pull request is trusted, {@code 0} to refresh every pull request on every listing.
+     */
+    private static final int TTL_MINUTES_DEFAULT =
+            Math.max(0, Integer.getInteger(PullRequestRefreshLedger.class.getName() + ".ttlMinutes", 60));
+
+    /**
+     * The maximum number of pull requests remembered.
+     */
+    private static final int MAX_ENTRIES_DEFAULT =
+            Math.max(1, Integer.getInteger(PullRequestRefreshLedger.class.getName() + ".maxEntries", 10000));
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    PullRequestRefreshLedger() {
+        this(TTL_MINUTES_DEFAULT, TimeUnit.MINUTES, MAX_ENTRIES_DEFAULT);
+    }
+
+    PullRequestRefreshLedger(long ttl, TimeUnit unit, int maxEntries) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Looks up the last refresh of a pull request.
+     *
+     * @param key the pull request key.
+     * @param commits the current source and target commits of the pull request.
+     * @return the last refresh if it was made for the same commits and is still trusted, {@code null} otherwise.
+     */
+    @CheckForNull
+    Entry get(@NonNull String key, @NonNull String commits) {
+        if (ttlNanos <= 0) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.nanos > ttlNanos) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null || !entry.commits.equals(commits)) {
+            return null;
+        }
+        skipped.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Records that the references of a pull request were refreshed.
+     *
+     * @param key the pull request key.
+     * @param commits the source and target commits of the pull request once refreshed.
+     * @param canMerge the answer of the {@code merge} call, if it was made.
+     */
+    void put(@NonNull String key, @NonNull String commits, @CheckForNull Boolean canMerge) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(commits, canMerge));
+            while (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Builds the commits value of a pull request from its source and target commits.
+     *
+     * @param source the source commit.
+     * @param target the target commit.
+     * @return the commits value.
+     */
+    @NonNull
+    static String commits(@CheckForNull String source, @CheckForNull String target) {
+        return source + ".." + target;
+    }
+
+    void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    long getSkipped() {
+        return skipped.get();
+    }
+
+    static final class Entry {
+        private final String commits;
+
+        private final Boolean canMerge;
+
+        private final long nanos = System.nanoTime();
+
+        private Entry(String commits, Boolean canMerge) {
+            this.commits = commits;
+            this.canMerge = canMerge;
+        }
+
+        @CheckForNull
+        Boolean getCanMerge() {
+            return canMerge;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BitbucketBuildStatusLedgerTest {
+
+    private static final String HASH = "e851558f77c098d21af6bb8cc54a423f7cf12147";
+
+    @Test
+    public void ensure_identical_status_is_posted_once() {
+        BitbucketBuildStatusLedger ledger = new BitbucketBuildStatusLedger(TimeUnit.HOURS.toMillis(1), 10);
+        BitbucketApi bitbucket = client("test-repos");
+        BitbucketBuildStatus status = status(HASH, BitbucketBuildStatus.Status.SUCCESSFUL, "test #1");
+
+        assertFalse(ledger.isPosted(bitbucket, status));
+        ledger.posted(bitbucket, status);
+        assertTrue(ledger.isPosted(bitbucket, status(HASH, BitbucketBuildStatus.Status.SUCCESSFUL, "test #1")));
+        assertEquals(1, ledger.getSkipped());
+
+        assertFalse(ledger.isPosted(bitbucket, status(HASH, BitbucketBuildStatus.Status.FAILED, "test #1")));
+        assertFalse(ledger.isPosted(bitbucket, status(HASH, BitbucketBuildStatus.Status.SUCCESSFUL, "test #2")));
+        assertFalse(ledger.isPosted(client("other-repo"), status));
+
+        ledger.forget(bitbucket, status);
+        assertFalse(ledger.isPosted(bitbucket, status));
+    }
+
+    @Test
+    public void ensure_statuses_are_told_apart_by_server() {
+        BitbucketBuildStatusLedger ledger = new BitbucketBuildStatusLedger(TimeUnit.HOURS.toMillis(1), 10);
+        BitbucketApi bitbucket = server("https://bitbucket.example.com");
+        BitbucketBuildStatus status = status(HASH, BitbucketBuildStatus.Status.SUCCESSFUL, "test #1");
+
+        ledger.posted(bitbucket, status);
+        assertTrue(ledger.isPosted(server("https://bitbucket.example.com"), status));
+        assertFalse(ledger.isPosted(server("https://stash.example.com"), status));
+    }
+
+    @Test
+    public void ensure_disabled_ledger_posts_everything() {
+        BitbucketBuildStatusLedger ledger = new BitbucketBuildStatusLedger(0, 10);
+        BitbucketApi bitbucket = client("test-repos");
+        BitbucketBuildStatus status = status(HASH, BitbucketBuildStatus.Status.SUCCESSFUL, "test #1");
+
+        ledger.posted(bitbucket, status);
+        assertFalse(ledger.isPosted(bitbucket, status));
+    }
+
+    private static BitbucketApi client(String repository) {
+        BitbucketApi bitbucket = mock(BitbucketApi.class);
+        when(bitbucket.getOwner()).thenReturn("amuniz");
+        when(bitbucket.getRepositoryName()).thenReturn(repository);
+        return bitbucket;
+    }
+
+    private static BitbucketApi server(String serverUrl) {
+        BitbucketServerAPIClient bitbucket = mock(BitbucketServerAPIClient.class);
+        when(bitbucket.getServerUrl()).thenReturn(serverUrl);
+        when(bitbucket.getOwner()).thenReturn("amuniz");
+        when(bitbucket.getRepositoryName()).thenReturn("test-repos");
+        return bitbucket;
+    }
+
+    private static BitbucketBuildStatus status(String hash, BitbucketBuildStatus.Status state, String name) {
+        return new BitbucketBuildStatus(hash, "description", state, "https://jenkins.example.com/job/test/1/",
+                "test/master", name);
+    }
+}
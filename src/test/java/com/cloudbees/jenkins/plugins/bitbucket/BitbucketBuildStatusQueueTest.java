@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BitbucketBuildStatusQueueTest {
+
+    @Rule
+    public final TestName testName = new TestName();
+
+    @Test
+    public void ensure_waiting_status_is_replaced_by_later_one() throws Exception {
+        BitbucketBuildStatusQueue queue = new BitbucketBuildStatusQueue(1, 0, 0);
+        BitbucketApi bitbucket = client();
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            posting.countDown();
+            release.await();
+            return null;
+        }).doNothing().when(bitbucket).postBuildStatus(any());
+
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.INPROGRESS));
+        assertTrue(posting.await(10, TimeUnit.SECONDS));
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.INPROGRESS));
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.FAILED));
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.SUCCESSFUL));
+        release.countDown();
+
+        ArgumentCaptor<BitbucketBuildStatus> posted = ArgumentCaptor.forClass(BitbucketBuildStatus.class);
+        verify(bitbucket, timeout(10000).times(2)).postBuildStatus(posted.capture());
+        List<BitbucketBuildStatus> statuses = posted.getAllValues();
+        assertEquals("INPROGRESS", statuses.get(0).getState());
+        assertEquals("SUCCESSFUL", statuses.get(1).getState());
+        assertEquals(2, queue.getSuperseded());
+    }
+
+    @Test
+    public void ensure_failed_post_is_retried() throws Exception {
+        BitbucketBuildStatusQueue queue = new BitbucketBuildStatusQueue(1, 2, 1);
+        BitbucketApi bitbucket = client();
+        doThrow(new IOException("Connection reset"))
+                .doThrow(new BitbucketRequestException(503, "Service Unavailable"))
+                .doNothing()
+                .when(bitbucket).postBuildStatus(any());
+
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.SUCCESSFUL));
+
+        verify(bitbucket, timeout(10000).times(3)).postBuildStatus(any());
+        assertEquals(0, queue.getFailed());
+    }
+
+    @Test
+    public void ensure_rejected_post_is_not_retried() throws Exception {
+        BitbucketBuildStatusQueue queue = new BitbucketBuildStatusQueue(1, 2, 1);
+        BitbucketApi bitbucket = client();
+        doThrow(new BitbucketRequestException(400, "Bad Request")).when(bitbucket).postBuildStatus(any());
+
+        queue.submit(bitbucket, status(BitbucketBuildStatus.Status.SUCCESSFUL));
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (queue.getPending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        verify(bitbucket, times(1)).postBuildStatus(any());
+        assertEquals(1, queue.getFailed());
+    }
+
+    @Test
+    public void ensure_retries_stop_at_deadline_and_failure_is_shown_on_build() throws Exception {
+        BitbucketBuildStatusQueue queue = new BitbucketBuildStatusQueue(1, 5, 1000, 500);
+        BitbucketApi bitbucket = client();
+        Run<?, ?> build = mock(Run.class);
+        doThrow(new BitbucketRequestException(429, "Too Many Requests")).when(bitbucket).postBuildStatus(any());
+
+        assertTrue(queue.submit(bitbucket, status(BitbucketBuildStatus.Status.FAILED), build));
+
+        ArgumentCaptor<BitbucketBuildStatusFailureAction> failure =
+                ArgumentCaptor.forClass(BitbucketBuildStatusFailureAction.class);
+        verify(build, timeout(10000)).addOrReplaceAction(failure.capture());
+        verify(bitbucket, times(1)).postBuildStatus(any());
+        assertThat(failure.getValue().getState(), is("FAILED"));
+        assertThat(failure.getValue().getReason(), is("Too Many Requests"));
+        assertEquals(1, queue.getFailed());
+    }
+
+    private static BitbucketApi client() {
+        BitbucketApi bitbucket = mock(BitbucketApi.class);
+        when(bitbucket.getOwner()).thenReturn("amuniz");
+        when(bitbucket.getRepositoryName()).thenReturn("test-repos");
+        return bitbucket;
+    }
+
+    private BitbucketBuildStatus status(BitbucketBuildStatus.Status state) {
+        // a commit of its own for each test as the posted statuses are remembered
+        return new BitbucketBuildStatus(DigestUtils.sha1Hex(testName.getMethodName()), "description", state,
+                "https://jenkins.example.com/job/test/1/", "test/master", "test #1");
+    }
+}
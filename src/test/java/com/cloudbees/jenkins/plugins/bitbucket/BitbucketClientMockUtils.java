@@ -65,12 +65,14 @@ public class BitbucketClientMockUtils {
         branches.add(branch2);
         // add branches
         when(bitbucket.getBranches()).thenReturn(branches);
+        when(bitbucket.iterateBranches()).thenReturn(branches);
         when(bitbucket.getBranch("branch1")).thenReturn(branch1);
         when(bitbucket.getBranch("branch2")).thenReturn(branch2);
         withMockGitRepos(bitbucket);
 
         if (includePullRequests) {
             when(bitbucket.getPullRequests()).thenReturn(Arrays.asList(getPullRequest()));
+            when(bitbucket.iteratePullRequests()).thenReturn(Arrays.asList(getPullRequest()));
             when(bitbucket.checkPathExists("e851558f77c098d21af6bb8cc54a423f7cf12147", "markerfile.txt"))
                     .thenReturn(true);
             when(bitbucket.resolveSourceFullHash(any(BitbucketPullRequestValue.class)))
@@ -26,6 +26,7 @@ package com.cloudbees.jenkins.plugins.bitbucket;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketHref;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.TaskListener;
 import hudson.plugins.git.GitSCM;
@@ -36,6 +37,7 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 import jenkins.plugins.git.AbstractGitSCMSource.SCMRevisionImpl;
+import jenkins.scm.api.SCMFile;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMHeadObserver;
 import jenkins.scm.api.SCMRevision;
@@ -53,7 +55,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BranchScanningTest {
@@ -68,6 +73,7 @@ public class BranchScanningTest {
     @Before
     public void clearMockFactory() {
         BitbucketMockApiFactory.clear();
+        BitbucketSCMSource.clearProbedDirectories();
     }
 
     @Test
@@ -129,6 +135,60 @@ public class BranchScanningTest {
         assertEquals("PR-23", observer.getBranches().get(1));
     }
 
+    @Test
+    public void scanTestScopedToOneBranch() throws Exception {
+        BitbucketSCMSource source = getBitbucketSCMSourceMock(false);
+        BitbucketCloudApiClient client = BitbucketClientMockUtils.getAPIClientMock(false, false);
+        BitbucketMockApiFactory.add(BitbucketCloudEndpoint.SERVER_URL, client);
+        SCMHeadObserver.Selector observer = SCMHeadObserver.select(new BranchSCMHead(branchName));
+        source.fetch(observer, BitbucketClientMockUtils.getTaskListenerMock());
+
+        // The requested branch is looked up on its own instead of listing all branches
+        assertEquals("52fc8e220d77ec400f7fc96a91d2fd0bb1bc553a", ((SCMRevisionImpl) observer.result()).getHash());
+        verify(client).getBranch(branchName);
+        verify(client, never()).getBranches();
+        verify(client, never()).iterateBranches();
+    }
+
+    @Test
+    public void scanTestProbesFromDirectoryListing() throws Exception {
+        BitbucketSCMSource source = getBitbucketSCMSourceMock(false);
+        BitbucketCloudApiClient client = BitbucketClientMockUtils.getAPIClientMock(false, false);
+        when(client.getSmallDirectoryContent(any(BitbucketSCMFile.class))).thenAnswer(invocation -> {
+            BitbucketSCMFile directory = invocation.getArgument(0);
+            List<SCMFile> children = new ArrayList<>();
+            children.add(new BitbucketSCMFile(directory, "README.md", SCMFile.Type.REGULAR_FILE, directory.getHash()));
+            if ("52fc8e220d77ec400f7fc96a91d2fd0bb1bc553a".equals(directory.getHash())) {
+                children.add(new BitbucketSCMFile(directory, "markerfile.txt", SCMFile.Type.REGULAR_FILE, directory.getHash()));
+            }
+            return children;
+        });
+        BitbucketMockApiFactory.add(BitbucketCloudEndpoint.SERVER_URL, client);
+        SCMHeadObserverImpl observer = new SCMHeadObserverImpl();
+        source.fetch(observer, BitbucketClientMockUtils.getTaskListenerMock());
+
+        // Only branch1 must be observed, without probing the paths one by one
+        assertEquals(1, observer.getBranches().size());
+        assertEquals("branch1", observer.getBranches().get(0));
+        verify(client, never()).checkPathExists(anyString(), anyString());
+    }
+
+    @Test
+    public void scanTestProbesLargeDirectoriesDirectly() throws Exception {
+        BitbucketSCMSource source = getBitbucketSCMSourceMock(false);
+        BitbucketCloudApiClient client = BitbucketClientMockUtils.getAPIClientMock(false, false);
+        when(client.getSmallDirectoryContent(any(BitbucketSCMFile.class))).thenReturn(null);
+        BitbucketMockApiFactory.add(BitbucketCloudEndpoint.SERVER_URL, client);
+        SCMHeadObserverImpl observer = new SCMHeadObserverImpl();
+        source.fetch(observer, BitbucketClientMockUtils.getTaskListenerMock());
+
+        // The directory holds more than a page of names, so the paths are probed without walking its listing
+        assertEquals(1, observer.getBranches().size());
+        assertEquals("branch1", observer.getBranches().get(0));
+        verify(client).checkPathExists("52fc8e220d77ec400f7fc96a91d2fd0bb1bc553a", "markerfile.txt");
+        verify(client, never()).getDirectoryContent(any(BitbucketSCMFile.class));
+    }
+
     @Test
     public void gitSCMTest() throws Exception {
         BitbucketMockApiFactory.add(BitbucketCloudEndpoint.SERVER_URL,
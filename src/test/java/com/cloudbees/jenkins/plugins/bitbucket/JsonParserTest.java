@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudPage;
+import com.cloudbees.jenkins.plugins.bitbucket.client.branch.BitbucketCloudBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranches;
+import com.fasterxml.jackson.databind.JavaType;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonParserTest {
+
+    @Test
+    public void stream_server_page_values() throws Exception {
+        String json = "{\"size\": 2, \"limit\": 2, \"start\": 0, \"isLastPage\": false, \"nextPageStart\": 2,"
+                + " \"values\": [{\"displayId\": \"main\", \"latestCommit\": \"abc\"}, null,"
+                + " {\"displayId\": \"feature/BB-1\", \"latestCommit\": \"def\"}]}";
+        JavaType pageType = JsonParser.mapper.constructType(BitbucketServerBranches.class);
+        JavaType valueType = JsonParser.mapper.constructType(BitbucketServerBranch.class);
+
+        List<String> names = new ArrayList<>();
+        BitbucketServerBranches page = JsonParser.toJavaPage(new StringReader(json), pageType, valueType,
+                (BitbucketServerBranch branch) -> names.add(branch.getName()));
+
+        assertThat(names, contains("main", "feature/BB-1"));
+        assertThat(page.getValues(), is(empty()));
+        assertEquals(Integer.valueOf(2), page.getLimit());
+        assertEquals(Integer.valueOf(2), page.getNextPageStart());
+        assertFalse(page.isLastPage());
+    }
+
+    @Test
+    public void stream_cloud_page_values() throws Exception {
+        String json = "{\"pagelen\": 1, \"values\": [{\"name\": \"main\", \"target\": {\"hash\": \"abc\"}}],"
+                + " \"page\": 1, \"size\": 1}";
+        JavaType pageType = JsonParser.mapper.getTypeFactory()
+                .constructParametricType(BitbucketCloudPage.class, BitbucketCloudBranch.class);
+        JavaType valueType = JsonParser.mapper.constructType(BitbucketCloudBranch.class);
+
+        List<BitbucketCloudBranch> branches = new ArrayList<>();
+        BitbucketCloudPage<BitbucketCloudBranch> page = JsonParser.toJavaPage(new StringReader(json), pageType,
+                valueType, branches::add);
+
+        assertEquals(1, branches.size());
+        assertEquals("main", branches.get(0).getName());
+        assertEquals("abc", branches.get(0).getRawNode());
+        assertThat(page.getValues(), is(empty()));
+        assertTrue(page.isLastPage());
+    }
+
+    @Test(expected = IOException.class)
+    public void reject_content_that_is_not_a_page() throws Exception {
+        JsonParser.toJavaPage(new StringReader("[]"), JsonParser.mapper.constructType(BitbucketServerBranches.class),
+                JsonParser.mapper.constructType(BitbucketServerBranch.class), value -> {});
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+public class PreparedIterableTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+
+    @Test
+    public void ensure_items_are_prepared_before_being_handed_over_in_order() throws Exception {
+        Set<Integer> prepared = ConcurrentHashMap.newKeySet();
+        List<Integer> iterated = new ArrayList<>();
+        try (PreparedIterable<Integer> iterable = new PreparedIterable<>(ITEMS, 8, prepared::add)) {
+            for (Integer item : iterable) {
+                assertTrue("item " + item + " was not prepared", prepared.contains(item));
+                iterated.add(item);
+            }
+        }
+        assertThat(iterated, is(ITEMS));
+    }
+
+    @Test
+    public void ensure_items_are_prepared_concurrently() throws Exception {
+        // every preparation waits for the next ones to start, which deadlocks unless they run together
+        CountDownLatch started = new CountDownLatch(4);
+        Set<Integer> together = ConcurrentHashMap.newKeySet();
+        try (PreparedIterable<Integer> iterable = new PreparedIterable<>(ITEMS.subList(0, 4), 4, item -> {
+            started.countDown();
+            if (started.await(10, TimeUnit.SECONDS)) {
+                together.add(item);
+            }
+        })) {
+            for (Integer item : iterable) {
+                assertTrue("item " + item + " was not prepared together with the others", together.contains(item));
+            }
+        }
+    }
+
+    @Test
+    public void ensure_failed_preparations_are_ignored() throws Exception {
+        List<Integer> iterated = new ArrayList<>();
+        try (PreparedIterable<Integer> iterable = new PreparedIterable<>(ITEMS, 4, item -> {
+            throw new IOException("boom");
+        })) {
+            for (Integer item : iterable) {
+                iterated.add(item);
+            }
+        }
+        assertThat(iterated, is(ITEMS));
+    }
+
+    @Test
+    public void ensure_nothing_is_prepared_when_disabled() throws Exception {
+        List<Integer> prepared = new ArrayList<>();
+        List<Integer> iterated = new ArrayList<>();
+        try (PreparedIterable<Integer> iterable = new PreparedIterable<>(ITEMS, 0, prepared::add)) {
+            for (Integer item : iterable) {
+                iterated.add(item);
+            }
+        }
+        assertThat(iterated, is(ITEMS));
+        assertThat(prepared, is(empty()));
+    }
+}
@@ -23,13 +23,20 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket;
 
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepositoryType;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
 import com.google.common.collect.ImmutableList;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.TaskListener;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.SCMSourceObserver.ProjectObserver;
@@ -41,7 +48,11 @@ import org.jvnet.hudson.test.JenkinsRule;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SCMNavigatorTest {
@@ -119,9 +130,74 @@ public class SCMNavigatorTest {
         }
     }
 
+    @Test
+    public void repositoriesLookedUpAheadAreObservedByTheVisitingThread() throws IOException, InterruptedException {
+        BitbucketApi client = BitbucketClientMockUtils.getAPIClientMock(true, false);
+        BitbucketMockApiFactory.add("http://bitbucket.test", client);
+        BitbucketSCMNavigator navigator = new BitbucketSCMNavigator("myteam", null, null);
+        navigator.setPattern("repo(.*)");
+        navigator.setBitbucketServerUrl("http://bitbucket.test");
+        final SCMSourceOwner mock = Mockito.mock(SCMSourceOwner.class);
+        when(mock.getSCMSources()).thenReturn(Collections.singletonList(new BitbucketSCMSource("myteam", "repo1")));
+        SCMSourceObserverImpl observer = new SCMSourceObserverImpl(BitbucketClientMockUtils.getTaskListenerMock(),
+                                                                   mock);
+        BitbucketSCMSource.clearProbedDirectories();
+        Set<Thread> listingThreads = ConcurrentHashMap.newKeySet();
+        when(client.getSmallDirectoryContent(any(BitbucketSCMFile.class))).thenAnswer(invocation -> {
+            listingThreads.add(Thread.currentThread());
+            return null;
+        });
+        int threads = BitbucketSCMNavigator.repositoryProcessingThreads;
+        BitbucketSCMNavigator.repositoryProcessingThreads = 4;
+        try {
+            navigator.visitSources(observer);
+        } finally {
+            BitbucketSCMNavigator.repositoryProcessingThreads = threads;
+        }
+
+        assertEquals(Arrays.asList("repo2", "repo1"), observer.getObserved());
+        // the root directories of the branch heads were listed ahead too, once per head
+        verify(client, times(2)).getSmallDirectoryContent(any(BitbucketSCMFile.class));
+        assertFalse(listingThreads.contains(Thread.currentThread()));
+        assertEquals(Collections.singleton(Thread.currentThread()), observer.getObservingThreads());
+        // the repositories were looked up ahead
+        verify(client, times(2)).getRepository();
+        // and the observed sources are the ones prepared
+        for (ProjectObserver obs : observer.getProjectObservers()) {
+            SCMSource scmSource = ((SCMSourceObserverImpl.ProjectObserverImpl) obs).getSources().get(0);
+            assertEquals(BitbucketRepositoryType.GIT, ((BitbucketSCMSource) scmSource).getRepositoryType());
+        }
+        verify(client, times(2)).getRepository();
+    }
+
+    @Test
+    public void repositoriesAreNotProcessedOnceTheRequestIsComplete() throws IOException, InterruptedException {
+        BitbucketMockApiFactory.add("http://bitbucket.test",
+                BitbucketClientMockUtils.getAPIClientMock(true, false));
+        BitbucketSCMNavigator navigator = new BitbucketSCMNavigator("myteam", null, null);
+        navigator.setPattern("repo(.*)");
+        navigator.setBitbucketServerUrl("http://bitbucket.test");
+        final SCMSourceOwner mock = Mockito.mock(SCMSourceOwner.class);
+        when(mock.getSCMSources()).thenReturn(Collections.singletonList(new BitbucketSCMSource("myteam", "repo1")));
+        SCMSourceObserverImpl observer = new SCMSourceObserverImpl(BitbucketClientMockUtils.getTaskListenerMock(),
+                                                                   mock);
+        observer.maxObserved = 1;
+        int threads = BitbucketSCMNavigator.repositoryProcessingThreads;
+        BitbucketSCMNavigator.repositoryProcessingThreads = 4;
+        try {
+            navigator.visitSources(observer);
+        } finally {
+            BitbucketSCMNavigator.repositoryProcessingThreads = threads;
+        }
+
+        assertEquals(Collections.singletonList("repo2"), observer.getObserved());
+    }
+
     private class SCMSourceObserverImpl extends SCMSourceObserver {
 
         List<String> observed = new ArrayList<>();
+        Set<Thread> observingThreads = new HashSet<>();
+        int maxObserved = Integer.MAX_VALUE;
         List<ProjectObserver> projectObservers = new ArrayList<>();
         TaskListener listener;
         SCMSourceOwner owner;
@@ -147,6 +223,7 @@ public class SCMNavigatorTest {
         @Override
         public ProjectObserver observe(@NonNull String projectName) throws IllegalArgumentException {
             observed.add(projectName);
+            observingThreads.add(Thread.currentThread());
             ProjectObserverImpl obs = new ProjectObserverImpl();
             projectObservers.add(obs);
             return obs;
@@ -156,10 +233,19 @@ public class SCMNavigatorTest {
         public void addAttribute(@NonNull String key, Object value) throws IllegalArgumentException, ClassCastException {
         }
 
+        @Override
+        public boolean isObserving() {
+            return observed.size() < maxObserved;
+        }
+
         public List<String> getObserved() {
             return observed;
         }
 
+        public Set<Thread> getObservingThreads() {
+            return observingThreads;
+        }
+
         public List<ProjectObserver> getProjectObservers() {
             return projectObservers;
         }
@@ -170,6 +256,7 @@ public class SCMNavigatorTest {
 
             @Override
             public void addSource(@NonNull SCMSource source) {
+                observingThreads.add(Thread.currentThread());
                 sources.add(source);
             }
 
@@ -179,6 +266,7 @@ public class SCMNavigatorTest {
 
             @Override
             public void complete() throws IllegalStateException, InterruptedException {
+                observingThreads.add(Thread.currentThread());
             }
 
             public List<SCMSource> getSources() {
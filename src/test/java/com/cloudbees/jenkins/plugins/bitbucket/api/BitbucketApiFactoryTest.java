@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.api;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.credentials.BitbucketUsernamePasswordAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketServerEndpoint;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class BitbucketApiFactoryTest {
+
+    private static final String SERVER_URL = "https://bitbucket.test";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void clientsAreSharedPerRepository() {
+        BitbucketApiFactory.clearPool();
+        BitbucketApi first = BitbucketApiFactory.newInstance(SERVER_URL, (BitbucketAuthenticator) null, "PROJ", null, "repo");
+        assertThat(BitbucketApiFactory.newInstance(SERVER_URL, (BitbucketAuthenticator) null, "PROJ", null, "repo"),
+                sameInstance(first));
+        assertThat(BitbucketApiFactory.newInstance(SERVER_URL, (BitbucketAuthenticator) null, "PROJ", null, "other"),
+                not(sameInstance(first)));
+    }
+
+    @Test
+    public void clientsAreSharedPerCredentialsContent() {
+        BitbucketApiFactory.clearPool();
+        BitbucketApi first = BitbucketApiFactory.newInstance(SERVER_URL, authenticator("pass"), "PROJ", null, "repo");
+        assertThat(BitbucketApiFactory.newInstance(SERVER_URL, authenticator("pass"), "PROJ", null, "repo"),
+                sameInstance(first));
+        assertThat(BitbucketApiFactory.newInstance(SERVER_URL, authenticator("other-pass"), "PROJ", null, "repo"),
+                not(sameInstance(first)));
+    }
+
+    @Test
+    public void endpointChangesDropSharedClients() {
+        BitbucketApiFactory.clearPool();
+        BitbucketApi first = BitbucketApiFactory.newInstance(SERVER_URL, (BitbucketAuthenticator) null, "PROJ", null, "repo");
+        BitbucketEndpointConfiguration.get().addEndpoint(new BitbucketServerEndpoint("Test", SERVER_URL, false, null));
+        assertThat(BitbucketApiFactory.newInstance(SERVER_URL, (BitbucketAuthenticator) null, "PROJ", null, "repo"),
+                not(sameInstance(first)));
+    }
+
+    private static BitbucketAuthenticator authenticator(String password) {
+        return new BitbucketUsernamePasswordAuthenticator(
+                new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "id", null, "user", password));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.api;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BitbucketListingQueryTest {
+
+    @Test
+    public void wildcardPatterns() {
+        BitbucketListingQuery query = new BitbucketListingQuery("release/*-rc*", null);
+        assertThat(query.getNameFragment(), is("release/"));
+        assertThat(query.getExactName(), nullValue());
+        assertThat(query.isAll(), is(false));
+
+        query = new BitbucketListingQuery("main", null);
+        assertThat(query.getNameFragment(), is("main"));
+        assertThat(query.getExactName(), is("main"));
+    }
+
+    @Test
+    public void listEverything() {
+        assertThat(new BitbucketListingQuery("*", null).isAll(), is(true));
+        assertThat(new BitbucketListingQuery("", null).isAll(), is(true));
+        assertThat(new BitbucketListingQuery(null, null).getNameFragment(), nullValue());
+        assertThat(new BitbucketListingQuery(null, false).isAll(), is(false));
+    }
+
+    @Test
+    public void quoteCloudValues() {
+        assertThat(BitbucketListingQuery.quote("a\"b\\c"), is("\"a\\\"b\\\\c\""));
+    }
+}
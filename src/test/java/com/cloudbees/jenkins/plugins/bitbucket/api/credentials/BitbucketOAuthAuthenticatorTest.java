@@ -0,0 +1,24 @@
+package com.cloudbees.jenkins.plugins.bitbucket.api.credentials;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.scribe.model.Token;
+
+import static org.junit.Assert.assertEquals;
+
+public class BitbucketOAuthAuthenticatorTest {
+
+    @Test
+    public void lifetime_is_read_from_token_response() {
+        Token token = new Token("abc", "", "{\"access_token\": \"abc\", \"scopes\": \"repository\", "
+                + "\"expires_in\": 7200, \"refresh_token\": \"def\", \"token_type\": \"bearer\"}");
+        assertEquals(TimeUnit.HOURS.toMillis(2), BitbucketOAuthAuthenticator.lifetimeOf(token));
+    }
+
+    @Test
+    public void lifetime_defaults_without_response() {
+        assertEquals(TimeUnit.HOURS.toMillis(1), BitbucketOAuthAuthenticator.lifetimeOf(new Token("abc", "")));
+        assertEquals(TimeUnit.HOURS.toMillis(1),
+                BitbucketOAuthAuthenticator.lifetimeOf(new Token("abc", "", "{\"access_token\": \"abc\"}")));
+    }
+}
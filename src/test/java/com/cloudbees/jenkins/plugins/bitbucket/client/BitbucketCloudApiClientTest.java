@@ -25,24 +25,42 @@ package com.cloudbees.jenkins.plugins.bitbucket.client;
 
 import com.cloudbees.jenkins.plugins.bitbucket.JsonParser;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketReviewer;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketWebHook;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory.IRequestAudit;
+import com.cloudbees.jenkins.plugins.bitbucket.client.branch.BitbucketCloudBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequestValue;
+import com.cloudbees.jenkins.plugins.bitbucket.client.pullrequest.BitbucketPullRequests;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.BitbucketCloudRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketCloudEndpoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 public class BitbucketCloudApiClientTest {
 
@@ -72,4 +90,113 @@ public class BitbucketCloudApiClientTest {
         verify(audit).request(Mockito.eq("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/hooks/%7B202cf34e-7ccf-44b7-ba6b-8827a14d5324%7D"));
     }
 
+    @Test
+    public void listingsOnlyRequestMappedFields() throws Exception {
+        BitbucketApi client = BitbucketIntegrationClientFactory.getApiMockClient(BitbucketCloudEndpoint.SERVER_URL);
+        IRequestAudit audit = ((IRequestAudit) client).getAudit();
+
+        assertFalse(client.getPullRequests().isEmpty());
+        verify(audit).request(Mockito.startsWith("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/pullrequests?page=1&pagelen=50&fields="));
+        assertFalse(client.getBranches().isEmpty());
+        verify(audit).request(Mockito.startsWith("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/refs/branches?pagelen=100&fields="));
+
+        // the projected listing maps to the same pull requests as the full one
+        String payload;
+        try (InputStream is = getClass().getResourceAsStream("payload/2.0-repositories-amuniz-test-repos-pullrequests_page_1_pagelen_50.json")) {
+            payload = IOUtils.toString(is, "UTF-8");
+        }
+        JsonNode projected = project(JsonParser.mapper.readTree(payload), BitbucketCloudApiClient.PULL_REQUEST_FIELDS);
+        List<BitbucketPullRequestValue> full = JsonParser.toJava(payload, BitbucketPullRequests.class).getValues();
+        List<BitbucketPullRequestValue> values = JsonParser.mapper.treeToValue(projected, BitbucketPullRequests.class).getValues();
+        assertThat(values.size(), is(full.size()));
+        for (int i = 0; i < values.size(); i++) {
+            BitbucketPullRequestValue value = values.get(i);
+            BitbucketPullRequestValue expected = full.get(i);
+            assertThat(value.getId(), is(expected.getId()));
+            assertThat(value.getTitle(), is(expected.getTitle()));
+            assertThat(value.getState(), is(expected.getState()));
+            assertThat(value.getUpdatedOn(), is(expected.getUpdatedOn()));
+            assertThat(value.getLink(), is(expected.getLink()));
+            assertThat(value.getAuthorIdentifier(), is(expected.getAuthorIdentifier()));
+            assertThat(name(value.getSource().getBranch()), is(name(expected.getSource().getBranch())));
+            assertThat(hash(value.getSource().getCommit()), is(hash(expected.getSource().getCommit())));
+            assertThat(fullName(value.getSource().getRepository()), is(fullName(expected.getSource().getRepository())));
+            assertThat(name(value.getDestination().getBranch()), is(name(expected.getDestination().getBranch())));
+            assertThat(hash(value.getDestination().getCommit()), is(hash(expected.getDestination().getCommit())));
+            assertThat(fullName(value.getDestination().getRepository()), is(fullName(expected.getDestination().getRepository())));
+        }
+        List<BitbucketReviewer> reviewers = values.get(0).getReviewers();
+        assertThat(reviewers, hasSize(1));
+        assertThat(reviewers.get(0).getApproved(), is(true));
+        assertThat(reviewers.get(0).getUser().getIdentifier(), is("557058:3a5c2ad6-5d4b-4a3c-9d5b-1f7c2e8d4b10"));
+    }
+
+    private static String name(BitbucketCloudBranch branch) {
+        return branch == null ? null : branch.getName();
+    }
+
+    private static String hash(BitbucketCommit commit) {
+        return commit == null ? null : commit.getHash();
+    }
+
+    private static String fullName(BitbucketCloudRepository repository) {
+        return repository == null ? null : repository.getFullName();
+    }
+
+    /**
+     * Keeps only the given fields of a response, the way Bitbucket Cloud applies the {@code fields} parameter.
+     */
+    private static JsonNode project(JsonNode node, String fields) {
+        ObjectNode projected = JsonParser.mapper.createObjectNode();
+        for (String field : fields.split(",")) {
+            copy(node, projected, field.split("\\."), 0);
+        }
+        return projected;
+    }
+
+    private static void copy(JsonNode from, ObjectNode to, String[] path, int index) {
+        JsonNode child = from.get(path[index]);
+        if (child == null || child.isNull()) {
+            return;
+        }
+        if (index == path.length - 1) {
+            to.set(path[index], child);
+        } else if (child.isArray()) {
+            ArrayNode target = to.has(path[index]) ? (ArrayNode) to.get(path[index]) : to.putArray(path[index]);
+            for (int i = 0; i < child.size(); i++) {
+                ObjectNode element = i < target.size() ? (ObjectNode) target.get(i) : target.addObject();
+                copy(child.get(i), element, path, index + 1);
+            }
+        } else {
+            ObjectNode target = to.has(path[index]) ? (ObjectNode) to.get(path[index]) : to.putObject(path[index]);
+            copy(child, target, path, index + 1);
+        }
+    }
+
+    @Test
+    public void updatePullRequestsSinceLastListing() throws Exception {
+        BitbucketApi client = BitbucketIntegrationClientFactory.getApiMockClient(BitbucketCloudEndpoint.SERVER_URL);
+        IRequestAudit audit = ((IRequestAudit) client).getAudit();
+        List<? extends BitbucketPullRequest> listed = client.getPullRequests();
+        assertThat(listed.stream().map(BitbucketPullRequest::getId).collect(Collectors.toList()), contains("2", "1"));
+
+        reset(audit);
+        List<? extends BitbucketPullRequest> pullRequests = client.getPullRequests();
+        verify(audit).request(Mockito.startsWith("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/pullrequests?page=1&pagelen=50"
+                + "&q=updated_on%20%3E%3D%202018-11-08T13%3A45%3A13.958677%2B00%3A00&sort=-updated_on"
+                + "&state=OPEN&state=MERGED&state=DECLINED&state=SUPERSEDED&fields="));
+        // a push to the destination branch does not update the pull requests
+        verify(audit).request(Mockito.startsWith("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/refs/branches?pagelen=100"
+                + "&q=name%20%3D%20%22main%22&fields="));
+        verifyNoMoreInteractions(audit);
+        assertThat(pullRequests.stream().map(BitbucketPullRequest::getId).collect(Collectors.toList()),
+                contains("2"));
+        assertThat(pullRequests.get(0).getTitle(), is("Add two messages more"));
+        assertThat(pullRequests.get(0).getDestination().getBranch().getRawNode(),
+                is("c8a1d7f0e6b2945d3f71a0be2c5d98e4a6f3b217"));
+        // every listing gets pull requests of its own
+        assertThat(pullRequests.get(0), not(sameInstance(listed.get(0))));
+        assertThat(listed.get(0).getDestination().getBranch().getRawNode(), is("bf4f4ce8a3a8"));
+    }
+
 }
@@ -155,6 +155,8 @@ public class BitbucketIntegrationClientFactory {
                 this.payloadRootPath = payloadRootPath;
             }
             this.audit = mock(IRequestAudit.class);
+            // every client starts from the recorded full listing
+            pullRequestSnapshots.evictAll();
         }
 
         @Override
@@ -162,7 +164,9 @@ public class BitbucketIntegrationClientFactory {
             String path = httpMethod.getURI().toString();
             audit.request(path);
 
-            String payloadPath = path.replace(API_ENDPOINT, "").replace('/', '-').replaceAll("[=%&?]", "_");
+            // the fields projection does not change the recorded payloads
+            String payloadPath = path.replaceAll("([?&])fields=[^&]*&?", "$1").replaceAll("[?&]$", "");
+            payloadPath = payloadPath.replace(API_ENDPOINT, "").replace('/', '-').replaceAll("[=%&?]", "_");
             payloadPath = payloadRootPath + payloadPath + ".json";
 
             return loadResponseFromResources(getClass(), path, payloadPath);
@@ -23,11 +23,24 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket.client;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -77,4 +90,134 @@ public class CacheTest {
         cache.get("another key", callable);
         assertEquals(10, cache.size());
     }
+
+    @Test
+    public void ensure_expiration_counts_from_last_access() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(300, TimeUnit.MILLISECONDS, 10, true, null);
+        final Callable<Long> callable = mock(Callable.class);
+        when(callable.call()).thenReturn(1L);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Long.valueOf(1L), cache.get("a key", callable));
+            Thread.sleep(100);
+        }
+        verify(callable).call();
+        Thread.sleep(400);
+        assertEquals(Long.valueOf(1L), cache.get("a key", callable));
+        verify(callable, times(2)).call();
+    }
+
+    @Test
+    public void ensure_removed_values_are_handed_to_the_listener() throws Exception {
+        final List<Long> removed = Collections.synchronizedList(new ArrayList<>());
+        final Cache<String, Long> cache = new Cache<>(100, TimeUnit.MILLISECONDS, 2, false, removed::add);
+
+        cache.get("expired", () -> 1L);
+        Thread.sleep(200);
+        cache.get("first", () -> 2L);
+        assertEquals(List.of(1L), removed);
+        assertEquals(1, cache.size());
+
+        cache.get("second", () -> 3L);
+        cache.get("third", () -> 4L);
+        assertEquals(List.of(1L, 2L), removed);
+
+        cache.evictAll();
+        assertEquals(4, removed.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void ensure_concurrent_loads_are_coalesced() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Callable<Long> slow = () -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return 1L;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = executor.submit(() -> cache.get("a key", slow));
+            loading.await();
+            Future<Long> second = executor.submit(() -> cache.get("a key", slow));
+
+            // another key is served while "a key" is still loading
+            assertEquals(Long.valueOf(2L), cache.get("another key", () -> 2L));
+            assertFalse(second.isDone());
+
+            release.countDown();
+            assertEquals(Long.valueOf(1L), first.get(10, TimeUnit.SECONDS));
+            assertEquals(Long.valueOf(1L), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void ensure_failures_are_not_cached() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final Callable<Long> callable = mock(Callable.class);
+        when(callable.call()).thenThrow(new IllegalStateException("boom")).thenReturn(1L);
+
+        try {
+            cache.get("a key", callable);
+            fail("the load failure should be propagated");
+        } catch (ExecutionException e) {
+            assertEquals("boom", e.getCause().getMessage());
+        }
+        assertEquals(0, cache.size());
+        assertEquals(Long.valueOf(1L), cache.get("a key", callable));
+        verify(callable, times(2)).call();
+    }
+
+    @Test
+    public void ensure_errors_release_waiting_loads() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<Long> broken = () -> {
+            loading.countDown();
+            release.await();
+            throw new LinkageError("boom");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = executor.submit(() -> cache.get("a key", broken));
+            loading.await();
+            final AtomicReference<Thread> waiter = new AtomicReference<>();
+            Future<Long> second = executor.submit(() -> {
+                waiter.set(Thread.currentThread());
+                return cache.get("a key", () -> 1L);
+            });
+            // let the second caller block on the pending entry before the load breaks
+            while (waiter.get() == null || waiter.get().getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+
+            release.countDown();
+            try {
+                first.get(10, TimeUnit.SECONDS);
+                fail("the load error should be propagated");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof LinkageError);
+            }
+            try {
+                second.get(10, TimeUnit.SECONDS);
+                fail("the waiting load should fail with the error");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getCause() instanceof LinkageError);
+            }
+            assertEquals(0, cache.size());
+            assertEquals(Long.valueOf(1L), cache.get("a key", () -> 1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
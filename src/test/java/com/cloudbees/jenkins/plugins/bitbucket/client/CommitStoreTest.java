@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CommitStoreTest {
+
+    private static final String HASH = "e851558f77c098d21af6bb8cc54a423f7cf12147";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ensure_responses_are_kept_across_restarts() throws Exception {
+        final File file = new File(folder.getRoot(), "caches/commits.log");
+        final CommitStore store = new CommitStore(file, 1024);
+        assertNull(store.get("cloud:amuniz/test-repos@" + HASH));
+        store.put("cloud:amuniz/test-repos@" + HASH, "{\"message\":\"caf\u00e9\"}");
+        store.put("cloud:amuniz/test-repos@" + HASH, "{\"message\":\"ignored\"}");
+        assertEquals("{\"message\":\"caf\u00e9\"}", store.get("cloud:amuniz/test-repos@" + HASH));
+
+        final CommitStore restarted = new CommitStore(file, 1024);
+        assertEquals("{\"message\":\"caf\u00e9\"}", restarted.get("cloud:amuniz/test-repos@" + HASH));
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    public void ensure_torn_records_are_dropped() throws Exception {
+        final File file = folder.newFile("commits.log");
+        final CommitStore store = new CommitStore(file, 1024);
+        store.put("first", "1");
+        store.put("second", "2");
+        try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+            log.setLength(log.length() - 1);
+        }
+
+        final CommitStore restarted = new CommitStore(file, 1024);
+        assertEquals("1", restarted.get("first"));
+        assertNull(restarted.get("second"));
+        restarted.put("second", "2");
+        assertEquals("2", new CommitStore(file, 1024).get("second"));
+    }
+
+    @Test
+    public void ensure_log_starts_over_when_full() throws Exception {
+        final CommitStore store = new CommitStore(folder.newFile("commits.log"), 64);
+        store.put("first", "0123456789012345678901234567890123456789");
+        store.put("second", "0123456789012345678901234567890123456789");
+        assertNull(store.get("first"));
+        assertEquals("0123456789012345678901234567890123456789", store.get("second"));
+
+        store.put("too big", "01234567890123456789012345678901234567890123456789012345678901234567890123456789");
+        assertNull(store.get("too big"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void ensure_clear_only_forgets_prefixed_keys() throws Exception {
+        final File file = folder.newFile("commits.log");
+        final CommitStore store = new CommitStore(file, 1024);
+        store.put("cloud:amuniz/test-repos@" + HASH, "cloud");
+        store.put("server:https://bitbucket.example.com/amuniz/test-repos@" + HASH, "server");
+        store.put("cloud:amuniz/other-repo@" + HASH, "other");
+
+        store.clear("cloud:");
+        assertNull(store.get("cloud:amuniz/test-repos@" + HASH));
+        assertNull(store.get("cloud:amuniz/other-repo@" + HASH));
+        assertEquals("server", store.get("server:https://bitbucket.example.com/amuniz/test-repos@" + HASH));
+
+        final CommitStore restarted = new CommitStore(file, 1024);
+        assertEquals("server", restarted.get("server:https://bitbucket.example.com/amuniz/test-repos@" + HASH));
+        assertEquals(1, restarted.size());
+        restarted.put("cloud:amuniz/test-repos@" + HASH, "again");
+        assertEquals("again", new CommitStore(file, 1024).get("cloud:amuniz/test-repos@" + HASH));
+    }
+
+    @Test
+    public void ensure_store_without_file_keeps_nothing() {
+        final CommitStore store = new CommitStore(null, 1024);
+        store.put("first", "1");
+        assertNull(store.get("first"));
+    }
+
+    @Test
+    public void ensure_only_full_hashes_are_stored() {
+        assertTrue(CommitStore.isFullHash(HASH));
+        assertFalse(CommitStore.isFullHash("e851558"));
+        assertFalse(CommitStore.isFullHash("master"));
+        assertFalse(CommitStore.isFullHash(null));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConditionalRequestCacheTest {
+
+    @Test
+    public void ensure_validators_are_sent_and_body_replayed() {
+        final ConditionalRequestCache cache = new ConditionalRequestCache(1024);
+        final String key = ConditionalRequestCache.key("https://api.bitbucket.org/2.0/repositories/amuniz", null);
+
+        final HttpGet first = new HttpGet("https://api.bitbucket.org/2.0/repositories/amuniz");
+        assertNull(cache.prepare(key, first));
+        assertNull(first.getFirstHeader(HttpHeaders.IF_NONE_MATCH));
+        cache.store(key, response("\"abc\"", "Wed, 21 Oct 2015 07:28:00 GMT"), "{}");
+
+        final HttpGet second = new HttpGet("https://api.bitbucket.org/2.0/repositories/amuniz");
+        final ConditionalRequestCache.Entry cached = cache.prepare(key, second);
+        assertNotNull(cached);
+        assertEquals("\"abc\"", second.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", second.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE).getValue());
+        assertEquals("{}", cache.replay(cached));
+    }
+
+    @Test
+    public void ensure_entries_are_per_credentials() {
+        final ConditionalRequestCache cache = new ConditionalRequestCache(1024);
+        final String url = "https://api.bitbucket.org/2.0/repositories/amuniz";
+        cache.store(ConditionalRequestCache.key(url, null), response("\"abc\"", null), "{}");
+
+        assertNull(cache.prepare(url + "::other", new HttpGet(url)));
+        assertNotNull(cache.prepare(ConditionalRequestCache.key(url, null), new HttpGet(url)));
+    }
+
+    @Test
+    public void ensure_keys_follow_credentials_content() {
+        final String url = "https://api.bitbucket.org/2.0/repositories/amuniz";
+        final BitbucketAuthenticator first = authenticator("first-id", "fingerprint");
+        final BitbucketAuthenticator renamed = authenticator("second-id", "fingerprint");
+        final BitbucketAuthenticator rotated = authenticator("first-id", "rotated");
+
+        assertEquals(ConditionalRequestCache.key(url, first), ConditionalRequestCache.key(url, renamed));
+        assertNotEquals(ConditionalRequestCache.key(url, first), ConditionalRequestCache.key(url, rotated));
+    }
+
+    @Test
+    public void ensure_responses_without_validators_are_not_cached() {
+        final ConditionalRequestCache cache = new ConditionalRequestCache(1024);
+        cache.store("a key", response("\"abc\"", null), "{}");
+        assertEquals(1, cache.size());
+
+        cache.store("a key", response(null, null), "{}");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void ensure_size_limit_evicts_least_recently_used() {
+        final ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        cache.store("a", response("\"a\"", null), "aaaa");
+        cache.store("b", response("\"b\"", null), "bbbb");
+        // touch a, so that b is the eldest
+        assertNotNull(cache.prepare("a", new HttpGet("https://bitbucket.org")));
+        cache.store("c", response("\"c\"", null), "cccc");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.prepare("b", new HttpGet("https://bitbucket.org")));
+        assertNotNull(cache.prepare("a", new HttpGet("https://bitbucket.org")));
+
+        cache.store("d", response("\"d\"", null), "a body larger than the cache");
+        assertNull(cache.prepare("d", new HttpGet("https://bitbucket.org")));
+    }
+
+    private static BitbucketAuthenticator authenticator(String id, String fingerprint) {
+        final BitbucketAuthenticator authenticator = mock(BitbucketAuthenticator.class);
+        when(authenticator.getId()).thenReturn(id);
+        when(authenticator.getFingerprint()).thenReturn(fingerprint);
+        return authenticator;
+    }
+
+    private static HttpResponse response(String etag, String lastModified) {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (lastModified != null) {
+            response.setHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        return response;
+    }
+}
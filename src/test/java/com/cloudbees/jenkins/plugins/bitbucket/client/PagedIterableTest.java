@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PagedIterableTest {
+
+    private static PagedIterable<String> pages(AtomicInteger requests, List<List<String>> pages) {
+        return new PagedIterable<>(() -> {
+            int page = requests.getAndIncrement();
+            return page < pages.size() ? pages.get(page) : null;
+        });
+    }
+
+    @Test
+    public void ensure_pages_are_requested_on_demand() {
+        AtomicInteger requests = new AtomicInteger();
+        PagedIterable<String> iterable = pages(requests, Arrays.asList(
+                Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e")));
+        assertEquals(0, requests.get());
+
+        Iterator<String> iterator = iterable.iterator();
+        assertEquals("a", iterator.next());
+        assertEquals("b", iterator.next());
+        assertEquals(1, requests.get());
+        assertEquals("c", iterator.next());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void ensure_fetched_pages_are_not_requested_again() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        PagedIterable<String> iterable = pages(requests, Arrays.asList(
+                Arrays.asList("a", "b"), Arrays.asList(), Arrays.asList("c")));
+
+        assertThat(PagedIterable.toList(iterable), contains("a", "b", "c"));
+        assertEquals(4, requests.get());
+        assertThat(PagedIterable.toList(iterable), contains("a", "b", "c"));
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void ensure_failures_are_rethrown() throws Exception {
+        PagedIterable<String> iterable = new PagedIterable<>(() -> {
+            throw new IOException("boom");
+        });
+        try {
+            iterable.iterator().hasNext();
+            fail();
+        } catch (BitbucketException e) {
+            assertThat(e, instanceOf(PagedIterable.PageRequestException.class));
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+        try {
+            PagedIterable.toList(iterable);
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("boom"));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import jenkins.branch.BranchSource;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+public class BitbucketSCMSourceIndexTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void ownersFollowTheirSources() throws Exception {
+        BitbucketSCMSourceIndex index = BitbucketSCMSourceIndex.get();
+        WorkflowMultiBranchProject first = j.jenkins.createProject(WorkflowMultiBranchProject.class, "first");
+        first.getSourcesList().add(new BranchSource(new BitbucketSCMSource("amuniz", "test-repos")));
+        first.save();
+        assertThat(index.getOwners("AMUNIZ", "test-repos"), contains(first));
+        assertThat(index.getOwners("amuniz", "other-repo"), empty());
+
+        WorkflowMultiBranchProject second = j.jenkins.createProject(WorkflowMultiBranchProject.class, "second");
+        second.getSourcesList().add(new BranchSource(new BitbucketSCMSource("amuniz", "test-repos")));
+        second.getSourcesList().add(new BranchSource(new BitbucketSCMSource("amuniz", "other-repo")));
+        second.save();
+        assertThat(index.getOwners("amuniz", "test-repos"), containsInAnyOrder(first, second));
+        assertThat(index.getOwners("amuniz", "other-repo"), contains(second));
+
+        second.getSourcesList().clear();
+        second.save();
+        assertThat(index.getOwners("amuniz", "other-repo"), empty());
+
+        first.delete();
+        assertThat(index.getOwners("amuniz", "test-repos"), empty());
+    }
+}
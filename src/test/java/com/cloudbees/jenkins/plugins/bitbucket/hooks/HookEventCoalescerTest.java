@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HookEventCoalescerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final HookEventCoalescer coalescer = new HookEventCoalescer(scheduler);
+
+    private final List<Collection<String>> fired = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void ensure_changes_of_a_burst_are_merged() throws Exception {
+        coalescer.submit("repo", changes("master", "master@1", "feature", "feature@1"), fired::add, 1, TimeUnit.SECONDS);
+        coalescer.submit("repo", changes("master", "master@2"), fired::add, 1, TimeUnit.SECONDS);
+        coalescer.submit("other", changes("master", "other@1"), fired::add, 1, TimeUnit.SECONDS);
+        assertEquals(0, fired.size());
+        assertEquals(2, coalescer.getOpen());
+
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(2, fired.size());
+        assertEquals(new ArrayList<>(List.of("feature@1", "master@2")), fired.get(0));
+        assertEquals(new ArrayList<>(List.of("other@1")), fired.get(1));
+        assertEquals(0, coalescer.getOpen());
+        assertEquals(2, coalescer.getFired());
+        assertEquals(1, coalescer.getMerged());
+    }
+
+    @Test
+    public void ensure_changes_are_fired_right_away_without_delay() {
+        coalescer.submit("repo", changes("master", "master@1"), fired::add, 0, TimeUnit.SECONDS);
+        coalescer.submit("repo", changes("master", "master@2"), fired::add, 0, TimeUnit.SECONDS);
+        assertEquals(2, fired.size());
+        assertEquals(0, coalescer.getMerged());
+    }
+
+    private static Map<String, String> changes(String... refsAndRevisions) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (int i = 0; i < refsAndRevisions.length; i += 2) {
+            changes.put(refsAndRevisions[i], refsAndRevisions[i + 1]);
+        }
+        return changes;
+    }
+}
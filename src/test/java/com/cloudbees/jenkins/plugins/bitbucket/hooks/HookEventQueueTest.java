@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HookEventQueueTest {
+
+    @Test
+    public void ensure_hooks_are_processed_in_background() throws Exception {
+        HookEventQueue queue = new HookEventQueue(10, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread[] processor = new Thread[1];
+        assertTrue(queue.submit(() -> {
+            processor[0] = Thread.currentThread();
+            done.countDown();
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), processor[0]);
+        assertEquals(1, queue.getQueued());
+        assertEquals(0, queue.getOverflowed());
+    }
+
+    @Test
+    public void ensure_hooks_are_processed_right_away_when_queue_is_full() throws Exception {
+        HookEventQueue queue = new HookEventQueue(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            assertTrue(queue.submit(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // takes the only place in the queue
+            assertTrue(queue.submit(() -> { }));
+            assertEquals(1, queue.getWaiting());
+
+            Thread[] processor = new Thread[1];
+            assertFalse(queue.submit(() -> processor[0] = Thread.currentThread()));
+            assertSame(Thread.currentThread(), processor[0]);
+            assertEquals(1, queue.getOverflowed());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void ensure_hooks_are_processed_right_away_when_disabled() {
+        HookEventQueue queue = new HookEventQueue(0, 1);
+        Thread[] processor = new Thread[1];
+        assertFalse(queue.submit(() -> processor[0] = Thread.currentThread()));
+        assertSame(Thread.currentThread(), processor[0]);
+        assertEquals(1, queue.getProcessed());
+        assertEquals(0, queue.getOverflowed());
+    }
+
+    @Test
+    public void ensure_failures_are_counted() throws Exception {
+        HookEventQueue queue = new HookEventQueue(10, 1);
+        queue.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        long deadline = System.currentTimeMillis() + 10000;
+        while (queue.getFailed() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, queue.getFailed());
+        assertEquals(1, queue.getProcessed());
+    }
+}
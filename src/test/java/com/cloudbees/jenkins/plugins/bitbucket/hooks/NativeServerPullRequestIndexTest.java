@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequest;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.server.events.NativeServerChange;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class NativeServerPullRequestIndexTest {
+
+    private static final String SERVER_URL = "http://local.example.com:7990/bitbucket";
+
+    private final NativeServerPullRequestIndex index = new NativeServerPullRequestIndex(TimeUnit.HOURS.toMillis(1), 10);
+
+    private BitbucketServerPullRequest pullRequest;
+
+    @Before
+    public void loadPullRequest() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream(
+                "/com/cloudbees/jenkins/plugins/bitbucket/server/events/BitbucketServerPullRequestEventTest/apiResponse.json")) {
+            pullRequest = JsonParser.toJava(is, BitbucketServerPullRequest.class);
+        }
+    }
+
+    @Test
+    public void ensure_pull_requests_are_known_once_listed() {
+        BitbucketServerRepository fork = pullRequest.getSource().getRepository();
+        BitbucketServerRepository target = pullRequest.getDestination().getRepository();
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", fork, "refs/heads/main"), nullValue());
+
+        Iterable<BitbucketServerPullRequest> listing =
+                index.recording(SERVER_URL, "PROJECT_1", "rep_1", Collections.singletonList(pullRequest));
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", fork, "refs/heads/main"), nullValue());
+        listing.forEach(pull -> {});
+
+        assertThat(index.getPullRequests(SERVER_URL, "project_1", "REP_1", fork, "refs/heads/main"),
+                contains(pullRequest));
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", target, "refs/heads/main"),
+                contains(pullRequest));
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", fork, "refs/heads/other"), empty());
+        assertThat(index.getPullRequests("http://other.example.com", "PROJECT_1", "rep_1", fork, "refs/heads/main"),
+                nullValue());
+    }
+
+    @Test
+    public void ensure_hooks_keep_pull_requests_up_to_date() {
+        BitbucketServerRepository fork = pullRequest.getSource().getRepository();
+        index.recording(SERVER_URL, "PROJECT_1", "rep_1", Collections.singletonList(pullRequest)).forEach(pull -> {});
+        assertThat(index.getLatestCommit(SERVER_URL, fork, "refs/heads/main", null),
+                is("feb8d676cd70406cecd4128c8fd1bee30282db11"));
+
+        NativeServerChange change = new NativeServerChange();
+        change.setRefId("refs/heads/main");
+        change.setToHash("0123456789012345678901234567890123456789");
+        change.setType("UPDATE");
+        index.pushed(SERVER_URL, fork, Collections.singletonList(change));
+        assertThat(index.getLatestCommit(SERVER_URL, fork, "refs/heads/main", null),
+                is("0123456789012345678901234567890123456789"));
+
+        index.update(SERVER_URL, pullRequest, false);
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", fork, "refs/heads/main"), empty());
+        index.update(SERVER_URL, pullRequest, true);
+        assertThat(index.getPullRequests(SERVER_URL, "PROJECT_1", "rep_1", fork, "refs/heads/main"),
+                contains(pullRequest));
+    }
+}
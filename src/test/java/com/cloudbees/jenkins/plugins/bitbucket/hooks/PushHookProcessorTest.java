@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.server.events.BitbucketServerPushEvent;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PushHookProcessorTest {
+
+    @Test
+    public void ensure_merged_payload_carries_the_merged_changes() {
+        BitbucketServerPushEvent first = push(change("master", "1"), change("feature", "1"));
+        BitbucketServerPushEvent latest = push(change("master", "2"));
+
+        List<BitbucketServerPushEvent.ChangeImpl> changes = List.of(first.getChanges().get(1), latest.getChanges().get(0));
+        BitbucketPushEvent merged = PushHookProcessor.merge(latest, changes);
+
+        assertTrue(merged instanceof BitbucketServerPushEvent);
+        assertSame(latest.getRepository(), merged.getRepository());
+        assertEquals(changes, merged.getChanges());
+        assertEquals(1, latest.getChanges().size());
+    }
+
+    private static BitbucketServerPushEvent push(BitbucketServerPushEvent.ChangeImpl... changes) {
+        BitbucketServerPushEvent push = new BitbucketServerPushEvent();
+        push.setRepository(new BitbucketServerRepository());
+        push.setChanges(List.of(changes));
+        return push;
+    }
+
+    private static BitbucketServerPushEvent.ChangeImpl change(String branch, String hash) {
+        BitbucketServerPushEvent.TargetImpl target = new BitbucketServerPushEvent.TargetImpl();
+        target.setHash(hash);
+        BitbucketServerPushEvent.ReferenceImpl ref = new BitbucketServerPushEvent.ReferenceImpl();
+        ref.setType("branch");
+        ref.setName(branch);
+        ref.setTarget(target);
+        BitbucketServerPushEvent.ChangeImpl change = new BitbucketServerPushEvent.ChangeImpl();
+        change.setNew(ref);
+        return change;
+    }
+}
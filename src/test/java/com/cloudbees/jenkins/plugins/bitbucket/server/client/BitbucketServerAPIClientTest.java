@@ -1,14 +1,25 @@
 package com.cloudbees.jenkins.plugins.bitbucket.server.client;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketListingQuery;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.api.credentials.BitbucketUsernamePasswordAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory.BitbucketServerIntegrationClient;
+import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory.IRequestAudit;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketServerEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.server.BitbucketServerVersion;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
 import com.damnhandy.uri.template.UriTemplate;
 import com.damnhandy.uri.template.impl.Operator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import org.apache.http.HttpHost;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.junit.Assert;
@@ -24,10 +35,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -89,8 +104,30 @@ public class BitbucketServerAPIClientTest {
         assertThat(names, is(List.of("another-repo", "dogs-repo", "test-repos")));
     }
 
+    @Test
+    public void sequentialPages() throws Exception {
+        BitbucketApi client = BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "paged-repo");
+        List<String> names = client.getBranches().stream().map(BitbucketBranch::getName).collect(Collectors.toList());
+        assertThat(names, is(List.of("main", "feature/BB-1", "feature/BB-2", "release/release-1")));
+    }
+
+    @Test
+    public void prefetchPagesInOrder() throws Exception {
+        int pagePrefetch = BitbucketServerAPIClient.pagePrefetch;
+        BitbucketServerAPIClient.pagePrefetch = 2;
+        try {
+            BitbucketApi client = BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "paged-repo");
+            List<String> names = client.getBranches().stream().map(BitbucketBranch::getName).collect(Collectors.toList());
+            assertThat(names, is(List.of("main", "feature/BB-1", "feature/BB-2", "release/release-1")));
+        } finally {
+            BitbucketServerAPIClient.pagePrefetch = pagePrefetch;
+        }
+    }
+
     @Test
     public void disableCookieManager() throws Exception {
+        // make sure the shared client is built while HttpClientBuilder is mocked
+        BitbucketServerHttpClientRegistry.clear();
         try(MockedStatic<HttpClientBuilder> staticHttpClientBuilder = mockStatic(HttpClientBuilder.class)) {
             HttpClientBuilder httpClientBuilder = mock(HttpClientBuilder.class);
             CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
@@ -99,6 +136,112 @@ public class BitbucketServerAPIClientTest {
             BitbucketApi client = BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "test-repos");
             client.getRepositories();
             verify(httpClientBuilder).disableCookieManagement();
+        } finally {
+            BitbucketServerHttpClientRegistry.clear();
+        }
+    }
+
+    @Test
+    @WithoutJenkins
+    public void sharedHttpClientPerEndpoint() throws Exception {
+        BitbucketServerHttpClientRegistry.clear();
+        try {
+            CloseableHttpClient first = client("https://bitbucket.example.com", null, null);
+            CloseableHttpClient second = client("https://bitbucket.example.com", null, null);
+            CloseableHttpClient other = client("https://stash.example.com", null, null);
+            CloseableHttpClient proxied = client("https://bitbucket.example.com",
+                    new HttpHost("proxy.example.com", 3128), null);
+            assertThat(second, sameInstance(first));
+            assertThat(other, not(sameInstance(first)));
+            assertThat(proxied, not(sameInstance(first)));
+            assertThat(BitbucketServerHttpClientRegistry.size(), is(3));
+        } finally {
+            BitbucketServerHttpClientRegistry.clear();
+        }
+    }
+
+    @Test
+    public void sharedHttpClientPerCredentialsContent() throws Exception {
+        BitbucketServerHttpClientRegistry.clear();
+        try {
+            BitbucketUsernamePasswordAuthenticator auth = new BitbucketUsernamePasswordAuthenticator(
+                    new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "id", null, "user", "pass"));
+            BitbucketUsernamePasswordAuthenticator same = new BitbucketUsernamePasswordAuthenticator(
+                    new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "id", null, "user", "pass"));
+            BitbucketUsernamePasswordAuthenticator rotated = new BitbucketUsernamePasswordAuthenticator(
+                    new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "id", null, "user", "new-pass"));
+            String host = "https://bitbucket.example.com";
+            CloseableHttpClient first = client(host, null, auth);
+            assertThat(client(host, null, same), sameInstance(first));
+            assertThat(client(host, null, rotated), not(sameInstance(first)));
+            assertThat(BitbucketServerHttpClientRegistry.size(), is(2));
+        } finally {
+            BitbucketServerHttpClientRegistry.clear();
+        }
+    }
+
+    @Test
+    @WithoutJenkins
+    public void sharedHttpClientIsClosedOnceNoLongerLeased() throws Exception {
+        BitbucketServerHttpClientRegistry.clear();
+        try (MockedStatic<HttpClientBuilder> staticHttpClientBuilder = mockStatic(HttpClientBuilder.class)) {
+            HttpClientBuilder httpClientBuilder = mock(HttpClientBuilder.class);
+            CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+            staticHttpClientBuilder.when(HttpClientBuilder::create).thenReturn(httpClientBuilder);
+            when(httpClientBuilder.build()).thenReturn(httpClient);
+            BitbucketServerHttpClientRegistry.Lease lease =
+                    BitbucketServerHttpClientRegistry.lease("https://bitbucket.example.com", null, null);
+            BitbucketServerHttpClientRegistry.clear();
+            // a request still uses it
+            verify(httpClient, never()).close();
+            lease.close();
+            lease.close();
+            verify(httpClient).close();
+            assertThat(BitbucketServerHttpClientRegistry.size(), is(0));
+        } finally {
+            BitbucketServerHttpClientRegistry.clear();
+        }
+    }
+
+    private static CloseableHttpClient client(String host, HttpHost proxy, BitbucketUsernamePasswordAuthenticator auth) {
+        try (BitbucketServerHttpClientRegistry.Lease lease = BitbucketServerHttpClientRegistry.lease(host, proxy, auth)) {
+            return lease.client();
+        }
+    }
+
+    @Test
+    public void refreshPullRequestReferencesOncePerCommits() throws Exception {
+        BitbucketServerEndpoint endpoint = new BitbucketServerEndpoint("test", "localhost", false, null);
+        endpoint.setCallCanMerge(false);
+        endpoint.setCallChanges(true);
+        endpoint.setServerVersion(BitbucketServerVersion.VERSION_7);
+        BitbucketEndpointConfiguration.get().addEndpoint(endpoint);
+        BitbucketServerAPIClient.refreshedPullRequests.evictAll();
+        try {
+            BitbucketApi client = BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "test-repos");
+            IRequestAudit audit = ((BitbucketServerIntegrationClient) client).getAudit();
+            assertThat(client.getPullRequests(), hasSize(2));
+            assertThat(client.getPullRequests(), hasSize(2));
+
+            String path = "/rest/api/1.0/projects/amuniz/repos/test-repos/pull-requests";
+            verify(audit).request(path + "/1/changes?limit=1");
+            verify(audit).request(path + "/2/changes?limit=1");
+            // listed again once after the references were refreshed, not on the second listing
+            verify(audit, times(3)).request(path + "?start=0&limit=200");
+        } finally {
+            BitbucketServerAPIClient.refreshedPullRequests.evictAll();
+        }
+    }
+
+    @Test
+    public void narrowBranchListingDown() throws Exception {
+        BitbucketApi client = BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "test-repos");
+        List<String> names = new ArrayList<>();
+        for (BitbucketBranch branch : client.iterateBranches(new BitbucketListingQuery("feature/BB-1", null))) {
+            names.add(branch.getName());
         }
+        assertThat(names, is(List.of("feature/BB-1")));
+        verify(((BitbucketServerIntegrationClient) client).getAudit())
+                .request("/rest/api/1.0/projects/amuniz/repos/test-repos/branches?filterText=feature%2FBB-1&start=0&limit=200");
     }
 }